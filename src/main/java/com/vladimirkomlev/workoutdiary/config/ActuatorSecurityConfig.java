@@ -0,0 +1,52 @@
+package com.vladimirkomlev.workoutdiary.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.annotation.Order;
+import org.springframework.security.config.annotation.authentication.builders.AuthenticationManagerBuilder;
+import org.springframework.security.config.annotation.web.builders.HttpSecurity;
+import org.springframework.security.config.annotation.web.configuration.WebSecurityConfigurerAdapter;
+import org.springframework.security.config.http.SessionCreationPolicy;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+@Configuration
+@Order(2)
+public class ActuatorSecurityConfig extends WebSecurityConfigurerAdapter {
+    private static final String AUTH_ROLE = "ACTUATOR";
+
+    private final PasswordEncoder passwordEncoder;
+    @Value("${actuator.user}")
+    private String user;
+
+    @Value("${actuator.password}")
+    private String password;
+
+    public ActuatorSecurityConfig(PasswordEncoder passwordEncoder) {
+        this.passwordEncoder = passwordEncoder;
+    }
+
+    @Override
+    public void configure(HttpSecurity http) throws Exception {
+        http
+                .requestMatchers()
+                .antMatchers("/actuator/**")
+                .and()
+                .csrf().disable()
+                .sessionManagement().sessionCreationPolicy(SessionCreationPolicy.STATELESS)
+                .and()
+                .authorizeRequests()
+                .antMatchers("/actuator/health", "/actuator/info").permitAll()
+                .anyRequest().hasRole(AUTH_ROLE)
+                .and()
+                .httpBasic();
+    }
+
+    @Override
+    public void configure(AuthenticationManagerBuilder auth) throws Exception {
+        auth.inMemoryAuthentication()
+                .passwordEncoder(passwordEncoder)
+                .withUser(user)
+                .password(passwordEncoder.encode(password))
+                .roles(AUTH_ROLE);
+    }
+}
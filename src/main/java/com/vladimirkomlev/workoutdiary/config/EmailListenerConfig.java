@@ -0,0 +1,52 @@
+package com.vladimirkomlev.workoutdiary.config;
+
+import com.vladimirkomlev.workoutdiary.infra.email.EmailMessage;
+import com.vladimirkomlev.workoutdiary.infra.email.EmailSender;
+import com.vladimirkomlev.workoutdiary.infra.messaging.MessageQueues;
+import org.springframework.amqp.rabbit.annotation.RabbitListenerConfigurer;
+import org.springframework.amqp.rabbit.listener.MethodRabbitListenerEndpoint;
+import org.springframework.amqp.rabbit.listener.RabbitListenerEndpointRegistrar;
+import org.springframework.beans.factory.BeanFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.messaging.handler.annotation.support.DefaultMessageHandlerMethodFactory;
+import org.springframework.util.ReflectionUtils;
+
+import java.lang.reflect.Method;
+
+@Configuration
+public class EmailListenerConfig implements RabbitListenerConfigurer {
+    private final EmailSender emailSender;
+    private final BeanFactory beanFactory;
+
+    @Value("${rmq.email.queue-name}")
+    private String emailQueueName;
+    @Value("${rmq.email.partitions}")
+    private int emailPartitions;
+
+    @Autowired
+    public EmailListenerConfig(EmailSender emailSender, BeanFactory beanFactory) {
+        this.emailSender = emailSender;
+        this.beanFactory = beanFactory;
+    }
+
+    @Override
+    public void configureRabbitListeners(RabbitListenerEndpointRegistrar registrar) {
+        DefaultMessageHandlerMethodFactory messageHandlerMethodFactory = new DefaultMessageHandlerMethodFactory();
+        messageHandlerMethodFactory.setBeanFactory(beanFactory);
+        messageHandlerMethodFactory.afterPropertiesSet();
+        Method sendEmail = ReflectionUtils.findMethod(EmailSender.class, "sendEmail", EmailMessage.class, Integer.class);
+        for (int partition = 0; partition < emailPartitions; partition++) {
+            String partitionQueueName = MessageQueues.partitionQueueName(emailQueueName, partition);
+            MethodRabbitListenerEndpoint endpoint = new MethodRabbitListenerEndpoint();
+            endpoint.setId(partitionQueueName);
+            endpoint.setQueueNames(partitionQueueName);
+            endpoint.setConcurrency("1");
+            endpoint.setBean(emailSender);
+            endpoint.setMethod(sendEmail);
+            endpoint.setMessageHandlerMethodFactory(messageHandlerMethodFactory);
+            registrar.registerEndpoint(endpoint);
+        }
+    }
+}
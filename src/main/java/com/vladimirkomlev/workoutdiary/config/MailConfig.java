@@ -1,10 +1,9 @@
 package com.vladimirkomlev.workoutdiary.config;
 
+import com.vladimirkomlev.workoutdiary.infra.email.PooledJavaMailSender;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
-import org.springframework.mail.javamail.JavaMailSender;
-import org.springframework.mail.javamail.JavaMailSenderImpl;
 
 import java.util.Properties;
 
@@ -28,9 +27,15 @@ public class MailConfig {
     @Value("${spring.mail.properties.mail.smtp.auth}")
     private String auth;
 
+    @Value("${mail.pool.size}")
+    private int poolSize;
+
+    @Value("${mail.pool.idle-timeout}")
+    private long idleTimeout;
+
     @Bean
-    public JavaMailSender getMailSender() {
-        JavaMailSenderImpl mailSender = new JavaMailSenderImpl();
+    public PooledJavaMailSender getMailSender() {
+        PooledJavaMailSender mailSender = new PooledJavaMailSender(poolSize, idleTimeout);
         mailSender.setHost(host);
         mailSender.setPort(port);
         mailSender.setUsername(username);
@@ -0,0 +1,23 @@
+package com.vladimirkomlev.workoutdiary.config;
+
+import com.vladimirkomlev.workoutdiary.security.BoundedPasswordEncoder;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+@Configuration
+public class PasswordEncoderConfig {
+    @Value("${password-hashing.pool-size}")
+    private int poolSize;
+
+    @Value("${password-hashing.queue-capacity}")
+    private int queueCapacity;
+
+    @Bean
+    public PasswordEncoder passwordEncoder(MeterRegistry meterRegistry) {
+        return new BoundedPasswordEncoder(new BCryptPasswordEncoder(), poolSize, queueCapacity, meterRegistry);
+    }
+}
@@ -1,18 +1,40 @@
 package com.vladimirkomlev.workoutdiary.config;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.vladimirkomlev.workoutdiary.infra.messaging.MessageQueues;
 import org.springframework.amqp.core.*;
 import org.springframework.amqp.support.converter.Jackson2JsonMessageConverter;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
 @Configuration
 public class RabbitConfig {
+    private static final String DEAD_LETTER_EXCHANGE = "x-dead-letter-exchange";
+    private static final String DEAD_LETTER_ROUTING_KEY = "x-dead-letter-routing-key";
+    private static final String MESSAGE_TTL = "x-message-ttl";
+    private static final String SINGLE_ACTIVE_CONSUMER = "x-single-active-consumer";
+
     @Value("${rmq.email.queue-name}")
     private String emailQueueName;
     @Value("${rmq.email.exchange-name}")
     private String emailExchangeName;
+    @Value("${rmq.email.retry-exchange-name}")
+    private String emailRetryExchangeName;
+    @Value("${rmq.email.dead-letter-exchange-name}")
+    private String emailDeadLetterExchangeName;
+    @Value("${rmq.email.parking-queue-name}")
+    private String emailParkingQueueName;
+    @Value("${rmq.email.retry-delays}")
+    private long[] emailRetryDelays;
+    @Value("${rmq.email.partitions}")
+    private int emailPartitions;
+    @Value("${rmq.cache-invalidation.exchange-name}")
+    private String cacheInvalidationExchangeName;
 
     @Bean
     public Jackson2JsonMessageConverter jackson2MessageConverter(ObjectMapper objectMapper) {
@@ -20,17 +42,74 @@ public class RabbitConfig {
     }
 
     @Bean
-    public Queue emailsQueue() {
-        return QueueBuilder.durable(emailQueueName).build();
+    public Exchange emailsExchange() {
+        return ExchangeBuilder.topicExchange(emailExchangeName).build();
     }
 
     @Bean
-    public Exchange emailsExchange() {
-        return ExchangeBuilder.topicExchange(emailExchangeName).build();
+    public Declarables emailPartitionQueues() {
+        List<Declarable> declarables = new ArrayList<>();
+        for (int partition = 0; partition < emailPartitions; partition++) {
+            String partitionQueueName = MessageQueues.partitionQueueName(emailQueueName, partition);
+            Queue partitionQueue = QueueBuilder.durable(partitionQueueName)
+                    .withArgument(SINGLE_ACTIVE_CONSUMER, true)
+                    .withArgument(DEAD_LETTER_EXCHANGE, emailDeadLetterExchangeName)
+                    .withArgument(DEAD_LETTER_ROUTING_KEY, emailParkingQueueName)
+                    .build();
+            declarables.add(partitionQueue);
+            declarables.add(BindingBuilder.bind(partitionQueue).to(emailsExchange()).with(partitionQueueName).noargs());
+        }
+        return new Declarables(declarables);
+    }
+
+    @Bean
+    public HeadersExchange emailsRetryExchange() {
+        return new HeadersExchange(emailRetryExchangeName);
+    }
+
+    @Bean
+    public Declarables emailRetryQueues() {
+        List<Declarable> declarables = new ArrayList<>();
+        for (int attempt = 1; attempt <= emailRetryDelays.length; attempt++) {
+            String retryQueueName = MessageQueues.retryQueueName(emailQueueName, attempt);
+            Queue retryQueue = QueueBuilder.durable(retryQueueName)
+                    .withArgument(MESSAGE_TTL, emailRetryDelays[attempt - 1])
+                    .withArgument(DEAD_LETTER_EXCHANGE, emailExchangeName)
+                    .build();
+            declarables.add(retryQueue);
+            declarables.add(BindingBuilder.bind(retryQueue).to(emailsRetryExchange())
+                    .whereAll(Collections.<String, Object>singletonMap(MessageQueues.RETRY_COUNT_HEADER, attempt)).match());
+        }
+        return new Declarables(declarables);
+    }
+
+    @Bean
+    public Exchange emailsDeadLetterExchange() {
+        return ExchangeBuilder.directExchange(emailDeadLetterExchangeName).build();
+    }
+
+    @Bean
+    public Queue emailsParkingQueue() {
+        return QueueBuilder.durable(emailParkingQueueName).build();
+    }
+
+    @Bean
+    public Binding emailParkingBinding() {
+        return BindingBuilder.bind(emailsParkingQueue()).to(emailsDeadLetterExchange()).with(emailParkingQueueName).noargs();
+    }
+
+    @Bean
+    public FanoutExchange cacheInvalidationExchange() {
+        return new FanoutExchange(cacheInvalidationExchangeName);
+    }
+
+    @Bean
+    public Queue cacheInvalidationQueue() {
+        return new AnonymousQueue(new AnonymousQueue.Base64UrlNamingStrategy("cache-invalidation."));
     }
 
     @Bean
-    public Binding emailBinding(Queue emailsQueue, Exchange emailsExchange) {
-        return BindingBuilder.bind(emailsQueue).to(emailsExchange).with(emailQueueName).noargs();
+    public Binding cacheInvalidationBinding() {
+        return BindingBuilder.bind(cacheInvalidationQueue()).to(cacheInvalidationExchange());
     }
-}
\ No newline at end of file
+}
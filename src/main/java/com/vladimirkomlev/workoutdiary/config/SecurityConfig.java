@@ -36,7 +36,7 @@ public class SecurityConfig extends WebSecurityConfigurerAdapter {
                 .and()
                 .authorizeRequests()
                 .antMatchers("/token", "/signup", "/confirm", "/reset-password",
-                        "/reset", "/setup-password", "/actuator*", "/actuator/*").permitAll()
+                        "/reset", "/setup-password").permitAll()
                 .anyRequest().authenticated()
                 .and()
                 .apply(new JwtConfigurer(jwtTokenProvider));
@@ -1,16 +1,27 @@
 package com.vladimirkomlev.workoutdiary.controller;
 
+import com.vladimirkomlev.workoutdiary.dto.WorkoutBulkOperationDto;
+import com.vladimirkomlev.workoutdiary.dto.WorkoutBulkResultDto;
+import com.vladimirkomlev.workoutdiary.dto.WorkoutChangesResponseDto;
 import com.vladimirkomlev.workoutdiary.dto.WorkoutCreateUpdateRequestDto;
+import com.vladimirkomlev.workoutdiary.dto.WorkoutCursor;
+import com.vladimirkomlev.workoutdiary.dto.WorkoutListRequestDto;
+import com.vladimirkomlev.workoutdiary.dto.WorkoutPatchRequestDto;
 import com.vladimirkomlev.workoutdiary.dto.WorkoutResponseDto;
+import com.vladimirkomlev.workoutdiary.dto.WorkoutSummaryResponseDto;
 import com.vladimirkomlev.workoutdiary.model.Workout;
 import com.vladimirkomlev.workoutdiary.service.WorkoutService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Slice;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.util.UriComponentsBuilder;
 
 import javax.validation.Valid;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.function.Function;
 
 @RestController
 @RequestMapping(value = "/")
@@ -32,25 +43,58 @@ public class WorkoutController {
         return ResponseEntity.ok(response);
     }
 
+    @PostMapping(value = "/users/{userId}/workouts/bulk")
+    public ResponseEntity bulkWorkouts(
+            @PathVariable Long userId,
+            @RequestBody List<WorkoutBulkOperationDto> workoutBulkOperationDtos
+    ) {
+        List<WorkoutBulkResultDto> response = workoutService.bulk(userId, workoutBulkOperationDtos);
+        return ResponseEntity.ok(response);
+    }
+
     @GetMapping(value = "/users/{userId}/workouts")
-    public ResponseEntity getAllWorkouts(@PathVariable Long userId) {
-        List<WorkoutResponseDto> response = workoutService.getAllWorkoutsByUserId(userId)
-                .stream()
-                .map(WorkoutResponseDto::toWorkoutResponseDto)
-                .collect(Collectors.toList());
+    public ResponseEntity getAllWorkouts(
+            @PathVariable Long userId,
+            @Valid WorkoutListRequestDto workoutListRequestDto,
+            WebRequest webRequest
+    ) {
+        long workoutsVersion = workoutService.getWorkoutsVersion(userId);
+        if (webRequest.checkNotModified(String.valueOf(workoutsVersion))) {
+            return null;
+        }
+        if ("summary".equals(workoutListRequestDto.getView())) {
+            Slice<WorkoutSummaryResponseDto> workouts = workoutService.getWorkoutSummariesByUserId(userId, workoutsVersion, workoutListRequestDto);
+            return pageResponse(userId, workoutListRequestDto, workouts, WorkoutCursor::of);
+        }
+        Slice<WorkoutResponseDto> workouts = workoutService.getAllWorkoutsByUserId(userId, workoutsVersion, workoutListRequestDto);
+        return pageResponse(userId, workoutListRequestDto, workouts, WorkoutCursor::of);
+    }
+
+    @GetMapping(value = "/users/{userId}/workouts/changes")
+    public ResponseEntity getWorkoutChanges(@PathVariable Long userId, @RequestParam(required = false) Long since) {
+        WorkoutChangesResponseDto response = workoutService.getChanges(userId, since);
         return ResponseEntity.ok(response);
     }
 
     @GetMapping(value = "/users/{userId}/workouts/{workoutId}")
-    public ResponseEntity getWorkout(@PathVariable Long userId, @PathVariable Long workoutId) {
-        Workout workout = workoutService.get(userId, workoutId);
-        WorkoutResponseDto response = WorkoutResponseDto.toWorkoutResponseDto(workout);
+    public ResponseEntity getWorkout(@PathVariable Long userId, @PathVariable Long workoutId, WebRequest webRequest) {
+        long workoutVersion = workoutService.getWorkoutVersion(userId, workoutId);
+        if (webRequest.checkNotModified(String.valueOf(workoutVersion))) {
+            return null;
+        }
+        WorkoutResponseDto response = workoutService.get(userId, workoutId, workoutVersion);
         return ResponseEntity.ok(response);
     }
 
     @PutMapping(value = "/users/{userId}/workouts/{workoutId}")
     public ResponseEntity updateWorkout(@Valid @RequestBody WorkoutCreateUpdateRequestDto workoutCreateUpdateRequestDto, @PathVariable Long userId, @PathVariable Long workoutId) {
-        Workout workout = workoutService.update(workoutCreateUpdateRequestDto, userId, workoutId);
+        WorkoutResponseDto response = workoutService.update(workoutCreateUpdateRequestDto, userId, workoutId);
+        return ResponseEntity.ok(response);
+    }
+
+    @PatchMapping(value = "/users/{userId}/workouts/{workoutId}")
+    public ResponseEntity patchWorkout(@Valid @RequestBody WorkoutPatchRequestDto workoutPatchRequestDto, @PathVariable Long userId, @PathVariable Long workoutId) {
+        Workout workout = workoutService.patch(workoutPatchRequestDto, userId, workoutId);
         WorkoutResponseDto response = WorkoutResponseDto.toWorkoutResponseDto(workout);
         return ResponseEntity.ok(response);
     }
@@ -60,4 +104,40 @@ public class WorkoutController {
         workoutService.delete(userId, workoutId);
         return ResponseEntity.ok(null);
     }
+
+    private static <T> ResponseEntity pageResponse(
+            Long userId,
+            WorkoutListRequestDto workoutListRequestDto,
+            Slice<T> workouts,
+            Function<T, WorkoutCursor> cursor
+    ) {
+        List<T> response = workouts.getContent();
+        if (!workouts.hasNext()) {
+            return ResponseEntity.ok(response);
+        }
+        WorkoutCursor last = cursor.apply(response.get(response.size() - 1));
+        return ResponseEntity.ok()
+                .header(HttpHeaders.LINK, "<" + nextPageUri(userId, workoutListRequestDto, last) + ">; rel=\"next\"")
+                .body(response);
+    }
+
+    private static String nextPageUri(Long userId, WorkoutListRequestDto workoutListRequestDto, WorkoutCursor last) {
+        UriComponentsBuilder uri = UriComponentsBuilder.fromPath("/users/{userId}/workouts")
+                .queryParam("limit", workoutListRequestDto.getLimit());
+        if (workoutListRequestDto.getFrom() != null) {
+            uri.queryParam("from", workoutListRequestDto.getFrom());
+        }
+        if (workoutListRequestDto.getTo() != null) {
+            uri.queryParam("to", workoutListRequestDto.getTo());
+        }
+        if (workoutListRequestDto.getSort() != null) {
+            uri.queryParam("sort", workoutListRequestDto.getSort());
+        }
+        if (workoutListRequestDto.getView() != null) {
+            uri.queryParam("view", workoutListRequestDto.getView());
+        }
+        return uri.queryParam("after", last.encode())
+                .buildAndExpand(userId)
+                .toUriString();
+    }
 }
@@ -6,6 +6,8 @@ import com.vladimirkomlev.workoutdiary.validation.EmailField;
 import com.vladimirkomlev.workoutdiary.validation.NotBlankField;
 import com.vladimirkomlev.workoutdiary.validation.Password;
 
+import java.util.Locale;
+
 public class UserRequestDto {
     @NotBlankField
     private String firstName;
@@ -23,7 +25,7 @@ public class UserRequestDto {
         user.setFirstName(userRequestDto.getFirstName());
         user.setLastName(userRequestDto.getLastName());
         user.setAge(userRequestDto.getAge());
-        user.setEmail(userRequestDto.getEmail().toLowerCase());
+        user.setEmail(userRequestDto.getEmail().toLowerCase(Locale.ROOT));
         user.setPassword(userRequestDto.getPassword());
         return user;
     }
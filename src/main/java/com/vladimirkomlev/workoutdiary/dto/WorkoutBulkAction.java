@@ -0,0 +1,7 @@
+package com.vladimirkomlev.workoutdiary.dto;
+
+public enum WorkoutBulkAction {
+    CREATE,
+    UPDATE,
+    DELETE
+}
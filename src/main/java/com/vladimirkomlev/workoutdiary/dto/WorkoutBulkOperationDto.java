@@ -0,0 +1,40 @@
+package com.vladimirkomlev.workoutdiary.dto;
+
+public class WorkoutBulkOperationDto {
+    private WorkoutBulkAction action;
+    private Long id;
+    private WorkoutCreateUpdateRequestDto workout;
+
+    public WorkoutBulkOperationDto() {
+    }
+
+    public WorkoutBulkOperationDto(WorkoutBulkAction action, Long id, WorkoutCreateUpdateRequestDto workout) {
+        this.action = action;
+        this.id = id;
+        this.workout = workout;
+    }
+
+    public WorkoutBulkAction getAction() {
+        return action;
+    }
+
+    public void setAction(WorkoutBulkAction action) {
+        this.action = action;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public WorkoutCreateUpdateRequestDto getWorkout() {
+        return workout;
+    }
+
+    public void setWorkout(WorkoutCreateUpdateRequestDto workout) {
+        this.workout = workout;
+    }
+}
@@ -0,0 +1,48 @@
+package com.vladimirkomlev.workoutdiary.dto;
+
+import java.util.Collections;
+import java.util.List;
+
+public class WorkoutBulkResultDto {
+    private Long id;
+    private WorkoutBulkStatus status;
+    private List<String> errors = Collections.emptyList();
+
+    public WorkoutBulkResultDto() {
+    }
+
+    public WorkoutBulkResultDto(Long id, WorkoutBulkStatus status) {
+        this.id = id;
+        this.status = status;
+    }
+
+    public WorkoutBulkResultDto(Long id, WorkoutBulkStatus status, List<String> errors) {
+        this.id = id;
+        this.status = status;
+        this.errors = errors;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public WorkoutBulkStatus getStatus() {
+        return status;
+    }
+
+    public void setStatus(WorkoutBulkStatus status) {
+        this.status = status;
+    }
+
+    public List<String> getErrors() {
+        return errors;
+    }
+
+    public void setErrors(List<String> errors) {
+        this.errors = errors;
+    }
+}
@@ -0,0 +1,9 @@
+package com.vladimirkomlev.workoutdiary.dto;
+
+public enum WorkoutBulkStatus {
+    CREATED,
+    UPDATED,
+    DELETED,
+    NOT_FOUND,
+    INVALID
+}
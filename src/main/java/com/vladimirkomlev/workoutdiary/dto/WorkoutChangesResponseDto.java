@@ -0,0 +1,42 @@
+package com.vladimirkomlev.workoutdiary.dto;
+
+import java.util.List;
+
+public class WorkoutChangesResponseDto {
+    private List<WorkoutResponseDto> changed;
+    private List<Long> deleted;
+    private long cursor;
+
+    public WorkoutChangesResponseDto() {
+    }
+
+    public WorkoutChangesResponseDto(List<WorkoutResponseDto> changed, List<Long> deleted, long cursor) {
+        this.changed = changed;
+        this.deleted = deleted;
+        this.cursor = cursor;
+    }
+
+    public List<WorkoutResponseDto> getChanged() {
+        return changed;
+    }
+
+    public void setChanged(List<WorkoutResponseDto> changed) {
+        this.changed = changed;
+    }
+
+    public List<Long> getDeleted() {
+        return deleted;
+    }
+
+    public void setDeleted(List<Long> deleted) {
+        this.deleted = deleted;
+    }
+
+    public long getCursor() {
+        return cursor;
+    }
+
+    public void setCursor(long cursor) {
+        this.cursor = cursor;
+    }
+}
@@ -0,0 +1,50 @@
+package com.vladimirkomlev.workoutdiary.dto;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+public class WorkoutCursor {
+    private final LocalDate date;
+    private final long id;
+
+    public WorkoutCursor(LocalDate date, long id) {
+        this.date = date;
+        this.id = id;
+    }
+
+    public static WorkoutCursor of(WorkoutResponseDto workout) {
+        return new WorkoutCursor(workout.getDate(), workout.getId());
+    }
+
+    public static WorkoutCursor of(WorkoutSummaryResponseDto workout) {
+        return new WorkoutCursor(workout.getDate(), workout.getId());
+    }
+
+    public static WorkoutCursor decode(String cursor) {
+        try {
+            String decoded = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] parts = decoded.split(",");
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("Invalid cursor: " + cursor);
+            }
+            return new WorkoutCursor(LocalDate.parse(parts[0]), Long.parseLong(parts[1]));
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid cursor: " + cursor, e);
+        }
+    }
+
+    public String encode() {
+        String raw = date + "," + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public LocalDate getDate() {
+        return date;
+    }
+
+    public long getId() {
+        return id;
+    }
+}
@@ -0,0 +1,47 @@
+package com.vladimirkomlev.workoutdiary.dto;
+
+import com.vladimirkomlev.workoutdiary.validation.NotBlankIfPresent;
+
+import java.time.LocalDate;
+
+public class WorkoutPatchRequestDto {
+    @NotBlankIfPresent
+    private String title;
+    private LocalDate date;
+    @NotBlankIfPresent
+    private String description;
+
+    public WorkoutPatchRequestDto(LocalDate date, String description, String title) {
+        this.date = date;
+        this.description = description;
+        this.title = title;
+    }
+
+    public WorkoutPatchRequestDto() {
+    }
+
+    public LocalDate getDate() {
+        return date;
+    }
+
+    public void setDate(LocalDate date) {
+        this.date = date;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    public void setDescription(String description) {
+        this.description = description;
+    }
+
+    public String getTitle() {
+        return title;
+    }
+
+    public void setTitle(String title) {
+        this.title = title;
+    }
+
+}
@@ -12,6 +12,16 @@ public class WorkoutResponseDto {
     private LocalDate date;
     private String description;
 
+    public WorkoutResponseDto() {
+    }
+
+    public WorkoutResponseDto(long id, String title, LocalDate date, String description) {
+        this.id = id;
+        this.title = title;
+        this.date = date;
+        this.description = description;
+    }
+
     public static WorkoutResponseDto toWorkoutResponseDto(Workout workout) {
         WorkoutResponseDto response = new WorkoutResponseDto();
         response.setId(workout.getId());
@@ -0,0 +1,55 @@
+package com.vladimirkomlev.workoutdiary.dto;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+
+import java.time.LocalDate;
+
+public class WorkoutSummaryResponseDto {
+    private long id;
+    private String title;
+    @JsonFormat(pattern = "yyyy-MM-dd")
+    private LocalDate date;
+    private String preview;
+
+    public WorkoutSummaryResponseDto() {
+    }
+
+    public WorkoutSummaryResponseDto(long id, String title, LocalDate date, String preview) {
+        this.id = id;
+        this.title = title;
+        this.date = date;
+        this.preview = preview;
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    public void setId(long id) {
+        this.id = id;
+    }
+
+    public String getTitle() {
+        return title;
+    }
+
+    public void setTitle(String title) {
+        this.title = title;
+    }
+
+    public LocalDate getDate() {
+        return date;
+    }
+
+    public void setDate(LocalDate date) {
+        this.date = date;
+    }
+
+    public String getPreview() {
+        return preview;
+    }
+
+    public void setPreview(String preview) {
+        this.preview = preview;
+    }
+}
@@ -4,9 +4,12 @@ import org.hibernate.exception.ConstraintViolationException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.validation.BindException;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ControllerAdvice;
 import org.springframework.web.bind.annotation.ExceptionHandler;
@@ -42,6 +45,14 @@ public class ControllerExceptionsHandler {
         return ResponseEntity.status(BAD_REQUEST).body(new Error<>(INVALID_CONTENT, errors));
     }
 
+    @ExceptionHandler
+    public ResponseEntity handle(BindException exception) {
+        List<String> errors = exception.getBindingResult().getFieldErrors().stream().map(
+                fieldError -> fieldError.getField() + ": " + fieldError.getDefaultMessage()
+        ).collect(Collectors.toList());
+        return ResponseEntity.status(BAD_REQUEST).body(new Error<>(INVALID_CONTENT, errors));
+    }
+
     @ExceptionHandler
     public ResponseEntity handle(HttpMessageNotReadableException exception) {
         logger.error(exception.getMessage());
@@ -54,6 +65,20 @@ public class ControllerExceptionsHandler {
         return ResponseEntity.status(NOT_FOUND).body(new Error<>(ENTITY_NOT_FOUND, exception.getMessage()));
     }
 
+    @ExceptionHandler
+    public ResponseEntity handle(ObjectOptimisticLockingFailureException exception) {
+        logger.warn(exception.getMessage());
+        return ResponseEntity.status(CONFLICT).body(new Error<>(CONCURRENT_MODIFICATION, "Workout was modified concurrently"));
+    }
+
+    @ExceptionHandler
+    public ResponseEntity handle(ServiceUnavailableException exception) {
+        logger.warn(exception.getMessage());
+        return ResponseEntity.status(SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(new Error<>(ErrorCode.SERVICE_UNAVAILABLE, exception.getMessage()));
+    }
+
     @ExceptionHandler
     public ResponseEntity handle(IllegalArgumentException exception) {
         logger.error(exception.getMessage());
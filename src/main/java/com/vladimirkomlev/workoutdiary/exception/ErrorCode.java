@@ -5,5 +5,7 @@ public enum ErrorCode {
     ACCESS_DENIED,
     INVALID_CONTENT,
     ENTITY_NOT_FOUND,
-    UNAUTHENTICATED
+    UNAUTHENTICATED,
+    SERVICE_UNAVAILABLE,
+    CONCURRENT_MODIFICATION
 }
@@ -0,0 +1,12 @@
+package com.vladimirkomlev.workoutdiary.exception;
+
+public class ServiceUnavailableException extends RuntimeException {
+
+    public ServiceUnavailableException(String msg, Throwable t) {
+        super(msg, t);
+    }
+
+    public ServiceUnavailableException(String msg) {
+        super(msg);
+    }
+}
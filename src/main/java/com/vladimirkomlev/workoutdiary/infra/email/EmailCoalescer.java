@@ -0,0 +1,56 @@
+package com.vladimirkomlev.workoutdiary.infra.email;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.vladimirkomlev.workoutdiary.model.ConfirmationCodePurpose;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.concurrent.TimeUnit;
+
+@Component
+public class EmailCoalescer {
+    private final long windowMillis;
+    private final Cache<String, Long> lastSent;
+
+    @Autowired
+    public EmailCoalescer(@Value("${confirmation-code.resend-window}") long windowMillis) {
+        this.windowMillis = windowMillis;
+        this.lastSent = Caffeine.newBuilder()
+                .expireAfterWrite(windowMillis, TimeUnit.MILLISECONDS)
+                .build();
+    }
+
+    public boolean tryAcquire(Long userId, ConfirmationCodePurpose purpose) {
+        String key = userId + ":" + purpose;
+        long now = System.currentTimeMillis();
+        boolean[] acquired = {false};
+        lastSent.asMap().compute(key, (k, sentAt) -> {
+            if (sentAt != null && now - sentAt < windowMillis) {
+                return sentAt;
+            }
+            acquired[0] = true;
+            return now;
+        });
+        if (acquired[0]) {
+            releaseOnRollback(key, now);
+        }
+        return acquired[0];
+    }
+
+    private void releaseOnRollback(String key, long acquiredAt) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status != STATUS_COMMITTED) {
+                        lastSent.asMap().remove(key, acquiredAt);
+                    }
+                }
+            });
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package com.vladimirkomlev.workoutdiary.infra.email;
+
+import com.vladimirkomlev.workoutdiary.model.OutboxEmail;
+import com.vladimirkomlev.workoutdiary.repository.OutboxEmailRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+@Component
+public class EmailOutbox {
+    private final OutboxEmailRepository outboxEmailRepository;
+
+    @Autowired
+    public EmailOutbox(OutboxEmailRepository outboxEmailRepository) {
+        this.outboxEmailRepository = outboxEmailRepository;
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void add(EmailMessage message) {
+        outboxEmailRepository.save(new OutboxEmail(message));
+    }
+}
@@ -0,0 +1,71 @@
+package com.vladimirkomlev.workoutdiary.infra.email;
+
+import com.vladimirkomlev.workoutdiary.infra.messaging.MessageQueues;
+import com.vladimirkomlev.workoutdiary.model.OutboxEmail;
+import com.vladimirkomlev.workoutdiary.repository.OutboxEmailRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+@Component
+@ConditionalOnProperty(name = "email-outbox.relay.enabled", havingValue = "true", matchIfMissing = true)
+public class EmailOutboxRelay {
+    private static final Logger logger = LoggerFactory.getLogger(EmailOutboxRelay.class);
+
+    private final OutboxEmailRepository outboxEmailRepository;
+    private final MessageQueues messageQueues;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${email-outbox.relay.batch-size}")
+    private int batchSize;
+
+    @Autowired
+    public EmailOutboxRelay(
+            OutboxEmailRepository outboxEmailRepository,
+            MessageQueues messageQueues,
+            TransactionTemplate transactionTemplate
+    ) {
+        this.outboxEmailRepository = outboxEmailRepository;
+        this.messageQueues = messageQueues;
+        this.transactionTemplate = transactionTemplate;
+    }
+
+    @Scheduled(fixedDelayString = "${email-outbox.relay.interval}")
+    public void relay() {
+        Integer relayed;
+        do {
+            relayed = transactionTemplate.execute(status -> relayBatch());
+        } while (relayed != null && relayed == batchSize);
+    }
+
+    private int relayBatch() {
+        List<OutboxEmail> batch = outboxEmailRepository.lockNextBatch(batchSize);
+        if (batch.isEmpty()) {
+            return 0;
+        }
+        List<EmailMessage> messages = batch.stream()
+                .map(OutboxEmail::toEmailMessage)
+                .collect(Collectors.toList());
+        List<EmailMessage> returned = messageQueues.enqueueEmails(messages);
+        List<OutboxEmail> enqueued = new ArrayList<>(batch.size());
+        for (int i = 0; i < batch.size(); i++) {
+            if (!returned.contains(messages.get(i))) {
+                enqueued.add(batch.get(i));
+            }
+        }
+        if (!returned.isEmpty()) {
+            logger.warn("{} outbox emails were returned as unroutable and stay in the outbox", returned.size());
+        }
+        outboxEmailRepository.deleteInBatch(enqueued);
+        return enqueued.size();
+    }
+}
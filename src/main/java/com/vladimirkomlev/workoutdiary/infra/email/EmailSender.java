@@ -1,33 +1,77 @@
 package com.vladimirkomlev.workoutdiary.infra.email;
 
-import org.springframework.amqp.rabbit.annotation.RabbitHandler;
-import org.springframework.amqp.rabbit.annotation.RabbitListener;
+import com.vladimirkomlev.workoutdiary.infra.messaging.MessageQueues;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.amqp.AmqpException;
+import org.springframework.amqp.AmqpRejectAndDontRequeueException;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.mail.SimpleMailMessage;
+import org.springframework.mail.*;
 import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.messaging.handler.annotation.Header;
 import org.springframework.stereotype.Component;
 
+import javax.mail.SendFailedException;
+
 @Component
-@RabbitListener(queues = "${rmq.email.queue-name}")
 public class EmailSender {
+    private static final Logger logger = LoggerFactory.getLogger(EmailSender.class);
+
     private final JavaMailSender mailSender;
+    private final MessageQueues messageQueues;
 
     @Value("${spring.mail.username}")
     private String username;
 
+    @Value("${rmq.email.retry-delays}")
+    private long[] retryDelays;
+
     @Autowired
-    public EmailSender(JavaMailSender mailSender) {
+    public EmailSender(JavaMailSender mailSender, MessageQueues messageQueues) {
         this.mailSender = mailSender;
+        this.messageQueues = messageQueues;
     }
 
-    @RabbitHandler
-    public void sendEmail(EmailMessage emailMessage) {
+    public void sendEmail(
+            EmailMessage emailMessage,
+            @Header(name = MessageQueues.RETRY_COUNT_HEADER, required = false) Integer retryCount
+    ) {
         SimpleMailMessage message = new SimpleMailMessage();
         message.setTo(emailMessage.getRecipient());
         message.setFrom(username);
         message.setSubject(emailMessage.getSubject());
         message.setText(emailMessage.getMessage());
-        mailSender.send(message);
+        try {
+            mailSender.send(message);
+        } catch (MailException e) {
+            int attempt = retryCount == null ? 1 : retryCount + 1;
+            if (isPermanent(e) || attempt > retryDelays.length) {
+                throw new AmqpRejectAndDontRequeueException("Parking email to " + emailMessage.getRecipient(), e);
+            }
+            logger.warn("Failed to send email to {}, retry {} of {}", emailMessage.getRecipient(), attempt, retryDelays.length, e);
+            try {
+                messageQueues.retryEmail(emailMessage, attempt);
+            } catch (AmqpException retryFailure) {
+                throw new AmqpRejectAndDontRequeueException("Parking email to " + emailMessage.getRecipient()
+                        + ", retry could not be published", retryFailure);
+            }
+        }
+    }
+
+    private static boolean isPermanent(MailException exception) {
+        if (exception instanceof MailParseException || exception instanceof MailPreparationException) {
+            return true;
+        }
+        if (exception instanceof MailSendException) {
+            for (Exception failure : ((MailSendException) exception).getFailedMessages().values()) {
+                if (failure instanceof SendFailedException
+                        && ((SendFailedException) failure).getInvalidAddresses() != null
+                        && ((SendFailedException) failure).getInvalidAddresses().length > 0) {
+                    return true;
+                }
+            }
+        }
+        return false;
     }
 }
@@ -0,0 +1,109 @@
+package com.vladimirkomlev.workoutdiary.infra.email;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import javax.mail.*;
+import java.util.Iterator;
+import java.util.concurrent.BlockingDeque;
+import java.util.concurrent.LinkedBlockingDeque;
+
+public class PooledJavaMailSender extends JavaMailSenderImpl implements DisposableBean {
+    private final BlockingDeque<IdleTransport> idleTransports;
+    private final long idleTimeoutMillis;
+
+    public PooledJavaMailSender(int poolSize, long idleTimeoutMillis) {
+        this.idleTransports = new LinkedBlockingDeque<>(poolSize);
+        this.idleTimeoutMillis = idleTimeoutMillis;
+    }
+
+    @Override
+    protected Transport connectTransport() throws MessagingException {
+        IdleTransport idle;
+        while ((idle = idleTransports.pollFirst()) != null) {
+            if (!idle.isExpired(idleTimeoutMillis) && idle.transport.isConnected()) {
+                return new PooledTransport(getSession(), idle.transport);
+            }
+            closeQuietly(idle.transport);
+        }
+        return new PooledTransport(getSession(), super.connectTransport());
+    }
+
+    @Scheduled(fixedDelayString = "${mail.pool.eviction-interval}")
+    public void evictIdle() {
+        Iterator<IdleTransport> iterator = idleTransports.iterator();
+        while (iterator.hasNext()) {
+            IdleTransport idle = iterator.next();
+            if (idle.isExpired(idleTimeoutMillis) && idleTransports.remove(idle)) {
+                closeQuietly(idle.transport);
+            }
+        }
+    }
+
+    public int getIdleConnectionCount() {
+        return idleTransports.size();
+    }
+
+    @Override
+    public void destroy() {
+        IdleTransport idle;
+        while ((idle = idleTransports.pollFirst()) != null) {
+            closeQuietly(idle.transport);
+        }
+    }
+
+    private void release(Transport transport) {
+        if (!transport.isConnected() || !idleTransports.offerFirst(new IdleTransport(transport))) {
+            closeQuietly(transport);
+        }
+    }
+
+    private static void closeQuietly(Transport transport) {
+        try {
+            transport.close();
+        } catch (MessagingException ignored) {
+        }
+    }
+
+    private static class IdleTransport {
+        private final Transport transport;
+        private final long idleSince = System.currentTimeMillis();
+
+        private IdleTransport(Transport transport) {
+            this.transport = transport;
+        }
+
+        private boolean isExpired(long idleTimeoutMillis) {
+            return System.currentTimeMillis() - idleSince >= idleTimeoutMillis;
+        }
+    }
+
+    private class PooledTransport extends Transport {
+        private final Transport delegate;
+        private boolean released;
+
+        private PooledTransport(Session session, Transport delegate) {
+            super(session, null);
+            this.delegate = delegate;
+        }
+
+        @Override
+        public void sendMessage(Message message, Address[] addresses) throws MessagingException {
+            delegate.sendMessage(message, addresses);
+        }
+
+        @Override
+        public boolean isConnected() {
+            return !released && delegate.isConnected();
+        }
+
+        @Override
+        public void close() {
+            if (!released) {
+                released = true;
+                release(delegate);
+            }
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package com.vladimirkomlev.workoutdiary.infra.messaging;
+
+import org.springframework.amqp.rabbit.annotation.RabbitListener;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+@Component
+public class CacheInvalidationListener {
+    private final Map<String, InvalidatableCache> caches;
+    private final CacheInvalidationPublisher cacheInvalidationPublisher;
+
+    @Autowired
+    public CacheInvalidationListener(List<InvalidatableCache> caches, CacheInvalidationPublisher cacheInvalidationPublisher) {
+        this.caches = caches.stream().collect(Collectors.toMap(InvalidatableCache::getName, Function.identity()));
+        this.cacheInvalidationPublisher = cacheInvalidationPublisher;
+    }
+
+    @RabbitListener(queues = "#{cacheInvalidationQueue.name}")
+    public void invalidate(CacheInvalidationMessage message) {
+        if (cacheInvalidationPublisher.getNodeId().equals(message.getOrigin())) {
+            return;
+        }
+        message.getKeys().forEach((name, keys) -> {
+            InvalidatableCache cache = caches.get(name);
+            if (cache != null) {
+                keys.forEach(cache::invalidate);
+            }
+        });
+    }
+}
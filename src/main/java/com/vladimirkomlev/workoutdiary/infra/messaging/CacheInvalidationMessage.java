@@ -0,0 +1,34 @@
+package com.vladimirkomlev.workoutdiary.infra.messaging;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+public class CacheInvalidationMessage {
+    private String origin;
+    private Map<String, Set<String>> keys = new HashMap<>();
+
+    public CacheInvalidationMessage() {
+    }
+
+    public CacheInvalidationMessage(String origin, Map<String, Set<String>> keys) {
+        this.origin = origin;
+        this.keys = keys;
+    }
+
+    public String getOrigin() {
+        return origin;
+    }
+
+    public void setOrigin(String origin) {
+        this.origin = origin;
+    }
+
+    public Map<String, Set<String>> getKeys() {
+        return keys;
+    }
+
+    public void setKeys(Map<String, Set<String>> keys) {
+        this.keys = keys;
+    }
+}
@@ -0,0 +1,79 @@
+package com.vladimirkomlev.workoutdiary.infra.messaging;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.amqp.AmqpException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+@Component
+public class CacheInvalidationPublisher {
+    private static final Logger logger = LoggerFactory.getLogger(CacheInvalidationPublisher.class);
+
+    private final String nodeId = UUID.randomUUID().toString();
+    private final Map<String, Set<String>> pending = new ConcurrentHashMap<>();
+    private final MessageQueues messageQueues;
+
+    @Value("${rmq.cache-invalidation.batch-size}")
+    private int batchSize;
+
+    @Autowired
+    public CacheInvalidationPublisher(MessageQueues messageQueues) {
+        this.messageQueues = messageQueues;
+    }
+
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    public void publish(String cache, Object key) {
+        pending.computeIfAbsent(cache, name -> ConcurrentHashMap.newKeySet()).add(String.valueOf(key));
+    }
+
+    @Scheduled(fixedDelayString = "${rmq.cache-invalidation.flush-interval}")
+    public void flush() {
+        Map<String, Set<String>> batch;
+        do {
+            batch = drain();
+            if (batch.isEmpty()) {
+                return;
+            }
+            try {
+                messageQueues.publishCacheInvalidations(new CacheInvalidationMessage(nodeId, batch));
+            } catch (AmqpException e) {
+                logger.warn("Failed to publish cache invalidations, retrying on next flush", e);
+                batch.forEach((cache, keys) -> keys.forEach(key -> publish(cache, key)));
+                return;
+            }
+        } while (count(batch) == batchSize);
+    }
+
+    private Map<String, Set<String>> drain() {
+        Map<String, Set<String>> batch = new HashMap<>();
+        int size = 0;
+        for (Map.Entry<String, Set<String>> entry : pending.entrySet()) {
+            Iterator<String> keys = entry.getValue().iterator();
+            while (keys.hasNext() && size < batchSize) {
+                String key = keys.next();
+                keys.remove();
+                batch.computeIfAbsent(entry.getKey(), cache -> new HashSet<>()).add(key);
+                size++;
+            }
+        }
+        return batch;
+    }
+
+    private static int count(Map<String, Set<String>> batch) {
+        return batch.values().stream().mapToInt(Set::size).sum();
+    }
+}
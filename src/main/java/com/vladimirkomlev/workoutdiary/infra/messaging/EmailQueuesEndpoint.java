@@ -0,0 +1,53 @@
+package com.vladimirkomlev.workoutdiary.infra.messaging;
+
+import org.springframework.amqp.core.AmqpAdmin;
+import org.springframework.amqp.rabbit.core.RabbitAdmin;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Properties;
+
+@Component
+@Endpoint(id = "emailqueues")
+public class EmailQueuesEndpoint {
+    private final AmqpAdmin amqpAdmin;
+
+    @Value("${rmq.email.queue-name}")
+    private String emailQueueName;
+    @Value("${rmq.email.parking-queue-name}")
+    private String emailParkingQueueName;
+    @Value("${rmq.email.retry-delays}")
+    private long[] emailRetryDelays;
+    @Value("${rmq.email.partitions}")
+    private int emailPartitions;
+
+    @Autowired
+    public EmailQueuesEndpoint(AmqpAdmin amqpAdmin) {
+        this.amqpAdmin = amqpAdmin;
+    }
+
+    @ReadOperation
+    public Map<String, Object> depths() {
+        Map<String, Object> depths = new LinkedHashMap<>();
+        for (int partition = 0; partition < emailPartitions; partition++) {
+            String partitionQueueName = MessageQueues.partitionQueueName(emailQueueName, partition);
+            depths.put(partitionQueueName, depth(partitionQueueName));
+        }
+        for (int attempt = 1; attempt <= emailRetryDelays.length; attempt++) {
+            String retryQueueName = MessageQueues.retryQueueName(emailQueueName, attempt);
+            depths.put(retryQueueName, depth(retryQueueName));
+        }
+        depths.put(emailParkingQueueName, depth(emailParkingQueueName));
+        return depths;
+    }
+
+    private Object depth(String queueName) {
+        Properties properties = amqpAdmin.getQueueProperties(queueName);
+        return properties == null ? null : properties.get(RabbitAdmin.QUEUE_MESSAGE_COUNT);
+    }
+}
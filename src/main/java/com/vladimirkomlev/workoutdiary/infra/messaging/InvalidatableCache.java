@@ -0,0 +1,7 @@
+package com.vladimirkomlev.workoutdiary.infra.messaging;
+
+public interface InvalidatableCache {
+    String getName();
+
+    void invalidate(String key);
+}
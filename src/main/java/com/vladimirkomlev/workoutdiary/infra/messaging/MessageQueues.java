@@ -1,23 +1,102 @@
 package com.vladimirkomlev.workoutdiary.infra.messaging;
 
 import com.vladimirkomlev.workoutdiary.infra.email.EmailMessage;
+import org.springframework.amqp.AmqpException;
+import org.springframework.amqp.rabbit.connection.CorrelationData;
 import org.springframework.amqp.rabbit.core.RabbitTemplate;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
 @Component
 public class MessageQueues {
+    public static final String RETRY_COUNT_HEADER = "retry-count";
+
     private final RabbitTemplate rabbitTemplate;
     @Value("${rmq.email.queue-name}")
     private String emailQueueName;
+    @Value("${rmq.email.exchange-name}")
+    private String emailExchangeName;
+    @Value("${rmq.email.retry-exchange-name}")
+    private String emailRetryExchangeName;
+    @Value("${rmq.email.partitions}")
+    private int emailPartitions;
+    @Value("${rmq.cache-invalidation.exchange-name}")
+    private String cacheInvalidationExchangeName;
+    @Value("${rmq.confirm-timeout}")
+    private long confirmTimeout;
 
     @Autowired
     public MessageQueues(RabbitTemplate rabbitTemplate) {
         this.rabbitTemplate = rabbitTemplate;
     }
 
-    public void enqueueEmail(EmailMessage message) {
-        rabbitTemplate.convertAndSend(emailQueueName, message);
+    public static String retryQueueName(String queueName, int attempt) {
+        return queueName + ".retry." + attempt;
+    }
+
+    public static String partitionQueueName(String queueName, int partition) {
+        return queueName + "." + partition;
+    }
+
+    public String emailRoutingKey(String recipient) {
+        int partition = Math.floorMod(recipient.toLowerCase(Locale.ROOT).hashCode(), emailPartitions);
+        return partitionQueueName(emailQueueName, partition);
+    }
+
+    public List<EmailMessage> enqueueEmails(List<EmailMessage> messages) {
+        List<CorrelationData> correlations = new ArrayList<>(messages.size());
+        for (EmailMessage message : messages) {
+            CorrelationData correlationData = new CorrelationData(UUID.randomUUID().toString());
+            rabbitTemplate.convertAndSend(emailExchangeName, emailRoutingKey(message.getRecipient()), message, correlationData);
+            correlations.add(correlationData);
+        }
+        List<EmailMessage> returned = new ArrayList<>();
+        for (int i = 0; i < messages.size(); i++) {
+            awaitConfirm(correlations.get(i));
+            if (correlations.get(i).getReturnedMessage() != null) {
+                returned.add(messages.get(i));
+            }
+        }
+        return returned;
+    }
+
+    public void retryEmail(EmailMessage message, int attempt) {
+        CorrelationData correlationData = new CorrelationData(UUID.randomUUID().toString());
+        rabbitTemplate.convertAndSend(emailRetryExchangeName, emailRoutingKey(message.getRecipient()), message, amqpMessage -> {
+            amqpMessage.getMessageProperties().setHeader(RETRY_COUNT_HEADER, attempt);
+            return amqpMessage;
+        }, correlationData);
+        awaitConfirm(correlationData);
+        if (correlationData.getReturnedMessage() != null) {
+            throw new AmqpException("Message was returned as unroutable");
+        }
+    }
+
+    public void publishCacheInvalidations(CacheInvalidationMessage message) {
+        rabbitTemplate.convertAndSend(cacheInvalidationExchangeName, "", message);
+    }
+
+    private void awaitConfirm(CorrelationData correlationData) {
+        CorrelationData.Confirm confirm;
+        try {
+            confirm = correlationData.getFuture().get(confirmTimeout, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new AmqpException("Interrupted while waiting for a publisher confirm", e);
+        } catch (ExecutionException | TimeoutException e) {
+            throw new AmqpException("No publisher confirm within " + confirmTimeout + " ms", e);
+        }
+        if (!confirm.isAck()) {
+            throw new AmqpException("Message was not confirmed: " + confirm.getReason());
+        }
     }
 }
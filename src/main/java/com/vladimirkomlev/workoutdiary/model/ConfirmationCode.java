@@ -1,28 +1,46 @@
 package com.vladimirkomlev.workoutdiary.model;
 
 import javax.persistence.*;
-import java.util.Random;
+import java.time.LocalDateTime;
+import java.security.SecureRandom;
 
 @Entity
 @Table(name = "confirmation_codes")
+@NamedEntityGraph(name = "ConfirmationCode.user", attributeNodes = @NamedAttributeNode("user"))
 public class ConfirmationCode {
+    private static final SecureRandom RANDOM = new SecureRandom();
+
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "confirmation_codes_id_seq")
+    @SequenceGenerator(name = "confirmation_codes_id_seq", sequenceName = "confirmation_codes_id_seq", allocationSize = 50)
     private long id;
     @Column(name = "code")
     private String code;
-    @OneToOne(targetEntity = User.class, fetch = FetchType.EAGER)
+    @OneToOne(targetEntity = User.class, fetch = FetchType.LAZY)
     @JoinColumn(nullable = false, name = "user_id")
     private User user;
+    @Enumerated(EnumType.STRING)
+    @Column(name = "purpose")
+    private ConfirmationCodePurpose purpose;
+    @Column(name = "sent_at")
+    private LocalDateTime sentAt;
+    @Column(name = "created_at", insertable = false, updatable = false)
+    private LocalDateTime createdAt;
+    @Column(name = "expires_at")
+    private LocalDateTime expiresAt;
 
     public ConfirmationCode() {
     }
 
-    public ConfirmationCode(User user) {
+    public ConfirmationCode(User user, ConfirmationCodePurpose purpose, LocalDateTime expiresAt) {
         this.user = user;
-        Random rnd = new Random();
-        int number = rnd.nextInt(999999);
-        code = String.format("%06d", number);
+        this.purpose = purpose;
+        this.code = generateCode();
+        this.expiresAt = expiresAt;
+    }
+
+    public static String generateCode() {
+        return String.format("%06d", RANDOM.nextInt(1_000_000));
     }
 
     public long getId() {
@@ -48,4 +66,32 @@ public class ConfirmationCode {
     public void setUser(User user) {
         this.user = user;
     }
+
+    public ConfirmationCodePurpose getPurpose() {
+        return purpose;
+    }
+
+    public void setPurpose(ConfirmationCodePurpose purpose) {
+        this.purpose = purpose;
+    }
+
+    public LocalDateTime getSentAt() {
+        return sentAt;
+    }
+
+    public void setSentAt(LocalDateTime sentAt) {
+        this.sentAt = sentAt;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public LocalDateTime getExpiresAt() {
+        return expiresAt;
+    }
+
+    public void setExpiresAt(LocalDateTime expiresAt) {
+        this.expiresAt = expiresAt;
+    }
 }
@@ -0,0 +1,6 @@
+package com.vladimirkomlev.workoutdiary.model;
+
+public enum ConfirmationCodePurpose {
+    CONFIRM_EMAIL,
+    RESET_PASSWORD
+}
@@ -0,0 +1,80 @@
+package com.vladimirkomlev.workoutdiary.model;
+
+import com.vladimirkomlev.workoutdiary.infra.email.EmailMessage;
+
+import javax.persistence.*;
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "email_outbox")
+public class OutboxEmail {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private long id;
+    @Column(name = "recipient")
+    private String recipient;
+    @Column(name = "subject")
+    private String subject;
+    @Column(name = "message")
+    private String message;
+    @Column(name = "created_at")
+    private LocalDateTime createdAt;
+
+    public OutboxEmail() {
+    }
+
+    public OutboxEmail(EmailMessage emailMessage) {
+        this.recipient = emailMessage.getRecipient();
+        this.subject = emailMessage.getSubject();
+        this.message = emailMessage.getMessage();
+        this.createdAt = LocalDateTime.now();
+    }
+
+    public EmailMessage toEmailMessage() {
+        EmailMessage emailMessage = new EmailMessage();
+        emailMessage.setRecipient(recipient);
+        emailMessage.setSubject(subject);
+        emailMessage.setMessage(message);
+        return emailMessage;
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    public void setId(long id) {
+        this.id = id;
+    }
+
+    public String getRecipient() {
+        return recipient;
+    }
+
+    public void setRecipient(String recipient) {
+        this.recipient = recipient;
+    }
+
+    public String getSubject() {
+        return subject;
+    }
+
+    public void setSubject(String subject) {
+        this.subject = subject;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    public void setMessage(String message) {
+        this.message = message;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+}
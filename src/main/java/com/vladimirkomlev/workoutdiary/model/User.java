@@ -8,7 +8,8 @@ import java.util.Set;
 @Table(name = "users")
 public class User {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "users_id_seq")
+    @SequenceGenerator(name = "users_id_seq", sequenceName = "users_id_seq", allocationSize = 50)
     private long id;
     @Column(name = "first_name")
     private String firstName;
@@ -22,7 +23,9 @@ public class User {
     private String password;
     @Column(name = "is_enabled")
     private boolean isEnabled;
-    @OneToMany(mappedBy = "user", fetch = FetchType.EAGER)
+    @Column(name = "workouts_version", insertable = false, updatable = false)
+    private long workoutsVersion;
+    @OneToMany(mappedBy = "user", fetch = FetchType.LAZY)
     private Set<Workout> workouts = new HashSet<>();
 
     public Long getId() {
@@ -81,6 +84,10 @@ public class User {
         isEnabled = enabled;
     }
 
+    public long getWorkoutsVersion() {
+        return workoutsVersion;
+    }
+
     public Set<Workout> getWorkouts() {
         return workouts;
     }
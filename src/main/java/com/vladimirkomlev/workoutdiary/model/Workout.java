@@ -1,23 +1,37 @@
 package com.vladimirkomlev.workoutdiary.model;
 
+import org.hibernate.annotations.DynamicUpdate;
+
 import javax.persistence.*;
 import java.time.LocalDate;
 
 @Entity
+@DynamicUpdate
 @Table(name = "workouts")
 public class Workout {
+    public static final int DESCRIPTION_PREVIEW_LENGTH = 100;
+
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "workouts_id_seq")
+    @SequenceGenerator(name = "workouts_id_seq", sequenceName = "workouts_id_seq", allocationSize = 50)
     private long id;
     @Column(name = "title")
     private String title;
     @Column(name = "workout_date")
     private LocalDate date;
+    @Basic(fetch = FetchType.LAZY)
     @Column(name = "description")
     private String description;
-    @ManyToOne(fetch = FetchType.EAGER)
+    @Column(name = "description_preview")
+    private String descriptionPreview;
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "user_id")
     private User user;
+    @Version
+    @Column(name = "version")
+    private long version;
+    @Column(name = "change_version")
+    private long changeVersion;
 
     public Workout() {
 
@@ -28,9 +42,21 @@ public class Workout {
         this.title = title;
         this.date = date;
         this.description = description;
+        this.descriptionPreview = descriptionPreview(description);
         this.user = user;
     }
 
+    public static String descriptionPreview(String description) {
+        if (description == null || description.length() <= DESCRIPTION_PREVIEW_LENGTH) {
+            return description;
+        }
+        int end = DESCRIPTION_PREVIEW_LENGTH - 1;
+        if (Character.isHighSurrogate(description.charAt(end - 1))) {
+            end--;
+        }
+        return description.substring(0, end) + "\u2026";
+    }
+
     public long getId() {
         return id;
     }
@@ -61,6 +87,11 @@ public class Workout {
 
     public void setDescription(String description) {
         this.description = description;
+        this.descriptionPreview = descriptionPreview(description);
+    }
+
+    public String getDescriptionPreview() {
+        return descriptionPreview;
     }
 
     public User getUser() {
@@ -70,4 +101,16 @@ public class Workout {
     public void setUser(User user) {
         this.user = user;
     }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public long getChangeVersion() {
+        return changeVersion;
+    }
+
+    public void setChangeVersion(long changeVersion) {
+        this.changeVersion = changeVersion;
+    }
 }
@@ -0,0 +1,60 @@
+package com.vladimirkomlev.workoutdiary.model;
+
+import org.springframework.data.domain.Persistable;
+
+import javax.persistence.*;
+
+@Entity
+@Table(name = "workout_tombstones")
+public class WorkoutTombstone implements Persistable<Long> {
+    @Id
+    @Column(name = "workout_id")
+    private long workoutId;
+    @Column(name = "user_id")
+    private long userId;
+    @Column(name = "change_version")
+    private long changeVersion;
+
+    public WorkoutTombstone() {
+    }
+
+    public WorkoutTombstone(long workoutId, long userId, long changeVersion) {
+        this.workoutId = workoutId;
+        this.userId = userId;
+        this.changeVersion = changeVersion;
+    }
+
+    @Override
+    public Long getId() {
+        return workoutId;
+    }
+
+    @Override
+    public boolean isNew() {
+        return true;
+    }
+
+    public long getWorkoutId() {
+        return workoutId;
+    }
+
+    public void setWorkoutId(long workoutId) {
+        this.workoutId = workoutId;
+    }
+
+    public long getUserId() {
+        return userId;
+    }
+
+    public void setUserId(long userId) {
+        this.userId = userId;
+    }
+
+    public long getChangeVersion() {
+        return changeVersion;
+    }
+
+    public void setChangeVersion(long changeVersion) {
+        this.changeVersion = changeVersion;
+    }
+}
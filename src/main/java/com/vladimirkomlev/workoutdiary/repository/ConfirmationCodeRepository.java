@@ -1,8 +1,57 @@
 package com.vladimirkomlev.workoutdiary.repository;
 
 import com.vladimirkomlev.workoutdiary.model.ConfirmationCode;
+import com.vladimirkomlev.workoutdiary.model.ConfirmationCodePurpose;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import javax.persistence.LockModeType;
 
 public interface ConfirmationCodeRepository extends JpaRepository<ConfirmationCode, Long> {
-    ConfirmationCode findByCode(String code);
+    @EntityGraph("ConfirmationCode.user")
+    @Query("select c from ConfirmationCode c " +
+            "where c.code = :code and c.purpose = :purpose and c.expiresAt > current_timestamp")
+    ConfirmationCode findActiveByCode(@Param("code") String code, @Param("purpose") ConfirmationCodePurpose purpose);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    ConfirmationCode findByUserIdAndPurpose(Long userId, ConfirmationCodePurpose purpose);
+
+    @Modifying
+    @Query(
+            value = "insert into confirmation_codes (code, user_id, purpose, created_at, expires_at) " +
+                    "values (:code, :userId, :purpose, now(), now() + :ttl * interval '1 millisecond') " +
+                    "on conflict do nothing",
+            nativeQuery = true
+    )
+    int insertIfAbsent(
+            @Param("code") String code,
+            @Param("userId") Long userId,
+            @Param("purpose") String purpose,
+            @Param("ttl") long ttlMillis
+    );
+
+    @Modifying
+    @Query(
+            value = "update confirmation_codes set sent_at = now() " +
+                    "where id = :id and (sent_at is null or sent_at <= now() - :window * interval '1 millisecond')",
+            nativeQuery = true
+    )
+    int markSent(@Param("id") Long id, @Param("window") long resendWindowMillis);
+
+    @Modifying
+    @Query("delete from ConfirmationCode c where c.user.id = :userId and c.purpose = :purpose and c.expiresAt <= current_timestamp")
+    int deleteExpired(@Param("userId") Long userId, @Param("purpose") ConfirmationCodePurpose purpose);
+
+    @Modifying
+    @Query(
+            value = "delete from confirmation_codes where id in (" +
+                    "select id from confirmation_codes where expires_at <= now() " +
+                    "order by expires_at limit :limit for update skip locked)",
+            nativeQuery = true
+    )
+    int deleteExpiredBatch(@Param("limit") int limit);
 }
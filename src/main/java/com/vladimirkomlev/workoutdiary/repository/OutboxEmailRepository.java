@@ -0,0 +1,13 @@
+package com.vladimirkomlev.workoutdiary.repository;
+
+import com.vladimirkomlev.workoutdiary.model.OutboxEmail;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.List;
+
+public interface OutboxEmailRepository extends JpaRepository<OutboxEmail, Long> {
+    @Query(value = "select * from email_outbox order by id limit :limit for update skip locked", nativeQuery = true)
+    List<OutboxEmail> lockNextBatch(@Param("limit") int limit);
+}
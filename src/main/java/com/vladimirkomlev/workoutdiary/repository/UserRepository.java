@@ -2,7 +2,17 @@ package com.vladimirkomlev.workoutdiary.repository;
 
 import com.vladimirkomlev.workoutdiary.model.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 public interface UserRepository extends JpaRepository<User, Long> {
-    User findByEmailIgnoreCase(String email);
+    @Query("select u from User u where lower(u.email) = lower(:email)")
+    User findByEmailIgnoreCase(@Param("email") String email);
+
+    @Query("select u.workoutsVersion from User u where u.id = :id")
+    Long findWorkoutsVersionById(@Param("id") Long id);
+
+    @Query(value = "update users set workouts_version = workouts_version + 1 where id = :id returning workouts_version",
+            nativeQuery = true)
+    Long nextWorkoutsVersion(@Param("id") Long id);
 }
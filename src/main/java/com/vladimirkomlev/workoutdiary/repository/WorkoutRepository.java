@@ -1,11 +1,107 @@
 package com.vladimirkomlev.workoutdiary.repository;
 
+import com.vladimirkomlev.workoutdiary.dto.WorkoutResponseDto;
+import com.vladimirkomlev.workoutdiary.dto.WorkoutSummaryResponseDto;
 import com.vladimirkomlev.workoutdiary.model.Workout;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 public interface WorkoutRepository extends JpaRepository<Workout, Long> {
-    public List<Workout> findAllByOrderByIdDesc();
+    @Query("select new com.vladimirkomlev.workoutdiary.dto.WorkoutResponseDto(w.id, w.title, w.date, w.description) " +
+            "from Workout w where w.user.id = :userId " +
+            "and w.date between :from and :to " +
+            "and w.date <= :afterDate and (w.date < :afterDate or w.id < :afterId) " +
+            "order by w.date desc, w.id desc")
+    List<WorkoutResponseDto> findByUserIdSortedByDate(
+            @Param("userId") Long userId,
+            @Param("from") LocalDate from,
+            @Param("to") LocalDate to,
+            @Param("afterDate") LocalDate afterDate,
+            @Param("afterId") Long afterId,
+            Pageable pageable
+    );
 
+    @Query("select new com.vladimirkomlev.workoutdiary.dto.WorkoutResponseDto(w.id, w.title, w.date, w.description) " +
+            "from Workout w where w.user.id = :userId " +
+            "and w.date between :from and :to " +
+            "and w.id < :afterId " +
+            "order by w.id desc")
+    List<WorkoutResponseDto> findByUserIdSortedById(
+            @Param("userId") Long userId,
+            @Param("from") LocalDate from,
+            @Param("to") LocalDate to,
+            @Param("afterId") Long afterId,
+            Pageable pageable
+    );
+
+    @Query("select new com.vladimirkomlev.workoutdiary.dto.WorkoutSummaryResponseDto(w.id, w.title, w.date, w.descriptionPreview) " +
+            "from Workout w where w.user.id = :userId " +
+            "and w.date between :from and :to " +
+            "and w.date <= :afterDate and (w.date < :afterDate or w.id < :afterId) " +
+            "order by w.date desc, w.id desc")
+    List<WorkoutSummaryResponseDto> findSummariesByUserIdSortedByDate(
+            @Param("userId") Long userId,
+            @Param("from") LocalDate from,
+            @Param("to") LocalDate to,
+            @Param("afterDate") LocalDate afterDate,
+            @Param("afterId") Long afterId,
+            Pageable pageable
+    );
+
+    @Query("select new com.vladimirkomlev.workoutdiary.dto.WorkoutSummaryResponseDto(w.id, w.title, w.date, w.descriptionPreview) " +
+            "from Workout w where w.user.id = :userId " +
+            "and w.date between :from and :to " +
+            "and w.id < :afterId " +
+            "order by w.id desc")
+    List<WorkoutSummaryResponseDto> findSummariesByUserIdSortedById(
+            @Param("userId") Long userId,
+            @Param("from") LocalDate from,
+            @Param("to") LocalDate to,
+            @Param("afterId") Long afterId,
+            Pageable pageable
+    );
+
+    @Query("select new com.vladimirkomlev.workoutdiary.dto.WorkoutResponseDto(w.id, w.title, w.date, w.description) " +
+            "from Workout w where w.id = :id and w.user.id = :userId")
+    Optional<WorkoutResponseDto> findResponseByIdAndUserId(@Param("id") Long id, @Param("userId") Long userId);
+
+    @Query("select new com.vladimirkomlev.workoutdiary.dto.WorkoutResponseDto(w.id, w.title, w.date, w.description) " +
+            "from Workout w where w.user.id = :userId and w.changeVersion > :since " +
+            "order by w.changeVersion")
+    List<WorkoutResponseDto> findChangedSince(@Param("userId") Long userId, @Param("since") long since);
+
+    @Query("select w from Workout w fetch all properties where w.id = :id and w.user.id = :userId")
+    Optional<Workout> findByIdAndUserId(@Param("id") Long id, @Param("userId") Long userId);
+
+    @Query("select w from Workout w where w.user.id = :userId and w.id in :ids")
+    List<Workout> findAllByUserIdAndIdIn(@Param("userId") Long userId, @Param("ids") Collection<Long> ids);
+
+    @Modifying
+    @Query("update Workout w set w.title = :title, w.date = :date, w.description = :description, " +
+            "w.descriptionPreview = :descriptionPreview, w.changeVersion = :changeVersion, w.version = w.version + 1 " +
+            "where w.id = :id and w.user.id = :userId")
+    int updateByIdAndUserId(
+            @Param("id") Long id,
+            @Param("userId") Long userId,
+            @Param("title") String title,
+            @Param("date") LocalDate date,
+            @Param("description") String description,
+            @Param("descriptionPreview") String descriptionPreview,
+            @Param("changeVersion") long changeVersion
+    );
+
+    @Modifying
+    @Query("delete from Workout w where w.id = :id and w.user.id = :userId")
+    int deleteByIdAndUserId(@Param("id") Long id, @Param("userId") Long userId);
+
+    @Query("select w.version from Workout w where w.id = :id and w.user.id = :userId")
+    Optional<Long> findVersionByIdAndUserId(@Param("id") Long id, @Param("userId") Long userId);
 }
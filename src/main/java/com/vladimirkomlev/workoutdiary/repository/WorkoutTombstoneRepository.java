@@ -0,0 +1,14 @@
+package com.vladimirkomlev.workoutdiary.repository;
+
+import com.vladimirkomlev.workoutdiary.model.WorkoutTombstone;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.List;
+
+public interface WorkoutTombstoneRepository extends JpaRepository<WorkoutTombstone, Long> {
+    @Query("select t.workoutId from WorkoutTombstone t where t.userId = :userId and t.changeVersion > :since " +
+            "order by t.changeVersion")
+    List<Long> findWorkoutIdsDeletedSince(@Param("userId") Long userId, @Param("since") long since);
+}
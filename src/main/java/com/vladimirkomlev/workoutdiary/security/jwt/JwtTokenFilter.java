@@ -28,7 +28,7 @@ public class JwtTokenFilter extends GenericFilterBean {
         String token = jwtTokenProvider.resolveToken((HttpServletRequest) request);
 
         try {
-            if (token != null && jwtTokenProvider.validateToken(token)) {
+            if (token != null) {
                 Authentication authentication = jwtTokenProvider.getAuthentication(token);
 
                 if (authentication != null) {
@@ -1,46 +1,67 @@
 package com.vladimirkomlev.workoutdiary.security.jwt;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
 import com.vladimirkomlev.workoutdiary.exception.JwtAuthenticationException;
 import com.vladimirkomlev.workoutdiary.model.User;
 import io.jsonwebtoken.*;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.context.annotation.Bean;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.stereotype.Component;
 
 import javax.annotation.PostConstruct;
 import javax.servlet.http.HttpServletRequest;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.Base64;
 import java.util.Date;
+import java.util.concurrent.TimeUnit;
 
 @Component
 public class JwtTokenProvider {
+    private static final String USER_ID_CLAIM = "userId";
+    private static final String ENABLED_CLAIM = "enabled";
+
     @Value("${jwt.token.secret}")
     private String secret;
     @Value("${jwt.token.expired}")
     private long tokenExpirationTimeMillis;
+    @Value("${jwt.token.cache.maximum-size}")
+    private long tokenCacheMaximumSize;
 
     @Autowired
     private UserDetailsService userDetailsService;
+    @Autowired
+    private MeterRegistry meterRegistry;
 
-    @Bean
-    public BCryptPasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
-    }
+    private JwtParser jwtParser;
+    private Cache<String, Claims> verifiedTokens;
 
     @PostConstruct
     protected void init() {
         secret = Base64.getEncoder().encodeToString(secret.getBytes());
+        jwtParser = Jwts.parser().setSigningKey(secret);
+        verifiedTokens = Caffeine.newBuilder()
+                .maximumSize(tokenCacheMaximumSize)
+                .expireAfter(new ExpiresWithToken())
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, verifiedTokens, "jwt.verified-tokens");
     }
 
     public String createToken(User user) {
         Claims claims = Jwts.claims()
                 .setSubject(user.getEmail());
+        claims.put(USER_ID_CLAIM, user.getId());
+        claims.put(ENABLED_CLAIM, user.isEnabled());
 
         Date now = new Date();
         Date expirationTime = new Date(now.getTime() + tokenExpirationTimeMillis);
@@ -54,14 +75,20 @@ public class JwtTokenProvider {
     }
 
     public Authentication getAuthentication(String token) {
-        UserDetails userDetails = this.userDetailsService.loadUserByUsername(getEmail(token));
+        Claims claims = verify(token);
+        UserDetails userDetails;
+        if (claims.containsKey(USER_ID_CLAIM)) {
+            userDetails = JwtUserFactory.create(
+                    ((Number) claims.get(USER_ID_CLAIM)).longValue(),
+                    claims.getSubject(),
+                    Boolean.TRUE.equals(claims.get(ENABLED_CLAIM))
+            );
+        } else {
+            userDetails = this.userDetailsService.loadUserByUsername(claims.getSubject());
+        }
         return new UsernamePasswordAuthenticationToken(userDetails, "", userDetails.getAuthorities());
     }
 
-    public String getEmail(String token) {
-        return Jwts.parser().setSigningKey(secret).parseClaimsJws(token).getBody().getSubject();
-    }
-
     public String resolveToken(HttpServletRequest request) {
         String bearerToken = request.getHeader("Authorization");
         if (bearerToken != null && bearerToken.startsWith("Bearer")) {
@@ -70,12 +97,52 @@ public class JwtTokenProvider {
         return null;
     }
 
-    public boolean validateToken(String token) {
+    private Claims verify(String token) {
+        String digest = digest(token);
+        Claims claims = verifiedTokens.getIfPresent(digest);
+        if (claims == null) {
+            claims = parse(token);
+            verifiedTokens.put(digest, claims);
+        }
+        return claims;
+    }
+
+    private Claims parse(String token) {
         try {
-            Jws<Claims> claims = Jwts.parser().setSigningKey(secret).parseClaimsJws(token);
-            return !claims.getBody().getExpiration().before(new Date());
+            Claims claims = jwtParser.parseClaimsJws(token).getBody();
+            if (claims.getExpiration() == null) {
+                throw new JwtAuthenticationException("Jwt token is expired or invalid");
+            }
+            return claims;
         } catch (JwtException | IllegalArgumentException e) {
             throw new JwtAuthenticationException("Jwt token is expired or invalid");
         }
     }
-}
\ No newline at end of file
+
+    private static String digest(String token) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            return Base64.getEncoder().encodeToString(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static class ExpiresWithToken implements Expiry<String, Claims> {
+        @Override
+        public long expireAfterCreate(String digest, Claims claims, long currentTime) {
+            long millisLeft = claims.getExpiration().getTime() - System.currentTimeMillis();
+            return TimeUnit.MILLISECONDS.toNanos(Math.max(millisLeft, 0));
+        }
+
+        @Override
+        public long expireAfterUpdate(String digest, Claims claims, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+
+        @Override
+        public long expireAfterRead(String digest, Claims claims, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
@@ -18,4 +18,8 @@ public final class JwtUserFactory {
                 user.isEnabled()
         );
     }
+
+    public static JwtUser create(Long id, String email, boolean isEnabled) {
+        return new JwtUser(id, null, null, 0, email, null, isEnabled);
+    }
 }
\ No newline at end of file
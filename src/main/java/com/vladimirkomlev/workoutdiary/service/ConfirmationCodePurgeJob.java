@@ -0,0 +1,36 @@
+package com.vladimirkomlev.workoutdiary.service;
+
+import com.vladimirkomlev.workoutdiary.repository.ConfirmationCodeRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+@Component
+@ConditionalOnProperty(name = "confirmation-code.mode", havingValue = "table", matchIfMissing = true)
+public class ConfirmationCodePurgeJob {
+    private final ConfirmationCodeRepository confirmationCodeRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${confirmation-code.purge.batch-size}")
+    private int batchSize;
+
+    @Autowired
+    public ConfirmationCodePurgeJob(
+            ConfirmationCodeRepository confirmationCodeRepository,
+            TransactionTemplate transactionTemplate
+    ) {
+        this.confirmationCodeRepository = confirmationCodeRepository;
+        this.transactionTemplate = transactionTemplate;
+    }
+
+    @Scheduled(fixedDelayString = "${confirmation-code.purge.interval}")
+    public void purge() {
+        Integer deleted;
+        do {
+            deleted = transactionTemplate.execute(status -> confirmationCodeRepository.deleteExpiredBatch(batchSize));
+        } while (deleted != null && deleted == batchSize);
+    }
+}
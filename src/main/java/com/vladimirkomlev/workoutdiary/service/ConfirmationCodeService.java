@@ -0,0 +1,11 @@
+package com.vladimirkomlev.workoutdiary.service;
+
+import com.vladimirkomlev.workoutdiary.model.ConfirmationCodePurpose;
+import com.vladimirkomlev.workoutdiary.model.User;
+
+public interface ConfirmationCodeService {
+
+    String issue(User user, ConfirmationCodePurpose purpose);
+
+    User redeem(String code, ConfirmationCodePurpose purpose);
+}
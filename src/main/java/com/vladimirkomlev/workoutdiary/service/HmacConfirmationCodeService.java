@@ -0,0 +1,96 @@
+package com.vladimirkomlev.workoutdiary.service;
+
+import com.vladimirkomlev.workoutdiary.model.ConfirmationCodePurpose;
+import com.vladimirkomlev.workoutdiary.model.User;
+import com.vladimirkomlev.workoutdiary.repository.UserRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Base64;
+
+@Service
+@Transactional(propagation = Propagation.MANDATORY)
+@ConditionalOnProperty(name = "confirmation-code.mode", havingValue = "hmac")
+public class HmacConfirmationCodeService implements ConfirmationCodeService {
+    private static final String ALGORITHM = "HmacSHA256";
+    private static final int MAC_LENGTH = 9;
+    private static final String SEPARATOR = ".";
+
+    private final UserRepository userRepository;
+    private final SecretKeySpec key;
+
+    @Value("${confirmation-code.ttl}")
+    private long codeTtlMillis;
+
+    @Autowired
+    public HmacConfirmationCodeService(
+            UserRepository userRepository,
+            @Value("${confirmation-code.hmac.secret}") String secret
+    ) {
+        this.userRepository = userRepository;
+        this.key = new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), ALGORITHM);
+    }
+
+    @Override
+    public String issue(User user, ConfirmationCodePurpose purpose) {
+        long expiresAt = Instant.now().plusMillis(codeTtlMillis).getEpochSecond();
+        return user.getId() + SEPARATOR + Long.toString(expiresAt, 36) + SEPARATOR + sign(user, purpose, expiresAt);
+    }
+
+    @Override
+    public User redeem(String code, ConfirmationCodePurpose purpose) {
+        String[] parts = code.split("\\.");
+        if (parts.length != 3) {
+            return null;
+        }
+        long userId;
+        long expiresAt;
+        try {
+            userId = Long.parseLong(parts[0]);
+            expiresAt = Long.parseLong(parts[1], 36);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+        if (expiresAt <= Instant.now().getEpochSecond()) {
+            return null;
+        }
+        User user = userRepository.findById(userId).orElse(null);
+        if (user == null) {
+            return null;
+        }
+        byte[] expected = sign(user, purpose, expiresAt).getBytes(StandardCharsets.UTF_8);
+        if (!MessageDigest.isEqual(expected, parts[2].getBytes(StandardCharsets.UTF_8))) {
+            return null;
+        }
+        return user;
+    }
+
+    private String sign(User user, ConfirmationCodePurpose purpose, long expiresAt) {
+        String payload = String.join("|",
+                String.valueOf(user.getId()),
+                purpose.name(),
+                String.valueOf(expiresAt),
+                user.getPassword(),
+                String.valueOf(user.isEnabled())
+        );
+        try {
+            Mac mac = Mac.getInstance(ALGORITHM);
+            mac.init(key);
+            byte[] digest = mac.doFinal(payload.getBytes(StandardCharsets.UTF_8));
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(Arrays.copyOf(digest, MAC_LENGTH));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package com.vladimirkomlev.workoutdiary.service;
+
+import com.vladimirkomlev.workoutdiary.model.ConfirmationCode;
+import com.vladimirkomlev.workoutdiary.model.ConfirmationCodePurpose;
+import com.vladimirkomlev.workoutdiary.model.User;
+import com.vladimirkomlev.workoutdiary.repository.ConfirmationCodeRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+@Service
+@Transactional(propagation = Propagation.MANDATORY)
+@ConditionalOnProperty(name = "confirmation-code.mode", havingValue = "table", matchIfMissing = true)
+public class TableConfirmationCodeService implements ConfirmationCodeService {
+    private static final int MAX_CODE_ATTEMPTS = 5;
+
+    private final ConfirmationCodeRepository confirmationCodeRepository;
+
+    @Value("${confirmation-code.ttl}")
+    private long codeTtlMillis;
+
+    @Value("${confirmation-code.resend-window}")
+    private long resendWindowMillis;
+
+    @Autowired
+    public TableConfirmationCodeService(ConfirmationCodeRepository confirmationCodeRepository) {
+        this.confirmationCodeRepository = confirmationCodeRepository;
+    }
+
+    @Override
+    public String issue(User user, ConfirmationCodePurpose purpose) {
+        ConfirmationCode confirmationCode = findOrCreateCode(user, purpose);
+        if (confirmationCodeRepository.markSent(confirmationCode.getId(), resendWindowMillis) == 0) {
+            return null;
+        }
+        return confirmationCode.getCode();
+    }
+
+    @Override
+    public User redeem(String code, ConfirmationCodePurpose purpose) {
+        ConfirmationCode confirmationCode = confirmationCodeRepository.findActiveByCode(code, purpose);
+        if (confirmationCode == null) {
+            return null;
+        }
+        confirmationCodeRepository.delete(confirmationCode);
+        return confirmationCode.getUser();
+    }
+
+    private ConfirmationCode findOrCreateCode(User user, ConfirmationCodePurpose purpose) {
+        confirmationCodeRepository.deleteExpired(user.getId(), purpose);
+        for (int attempt = 0; attempt < MAX_CODE_ATTEMPTS; attempt++) {
+            confirmationCodeRepository.insertIfAbsent(ConfirmationCode.generateCode(), user.getId(), purpose.name(), codeTtlMillis);
+            ConfirmationCode confirmationCode = confirmationCodeRepository.findByUserIdAndPurpose(user.getId(), purpose);
+            if (confirmationCode != null) {
+                return confirmationCode;
+            }
+        }
+        throw new IllegalStateException("Could not generate a unique confirmation code");
+    }
+}
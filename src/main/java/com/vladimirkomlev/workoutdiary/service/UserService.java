@@ -21,4 +21,6 @@ public interface UserService {
     User getUserByEmail(String email);
 
     User getCurrentUser();
+
+    Long getCurrentUserId();
 }
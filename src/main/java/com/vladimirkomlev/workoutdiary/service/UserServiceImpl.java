@@ -3,60 +3,66 @@ package com.vladimirkomlev.workoutdiary.service;
 import com.vladimirkomlev.workoutdiary.dto.ResetPasswordRequestDto;
 import com.vladimirkomlev.workoutdiary.dto.SetupPasswordRequestDto;
 import com.vladimirkomlev.workoutdiary.exception.NotFoundException;
+import com.vladimirkomlev.workoutdiary.infra.email.EmailCoalescer;
 import com.vladimirkomlev.workoutdiary.infra.email.EmailMessage;
-import com.vladimirkomlev.workoutdiary.infra.messaging.MessageQueues;
-import com.vladimirkomlev.workoutdiary.model.ConfirmationCode;
+import com.vladimirkomlev.workoutdiary.infra.email.EmailOutbox;
+import com.vladimirkomlev.workoutdiary.model.ConfirmationCodePurpose;
 import com.vladimirkomlev.workoutdiary.model.User;
-import com.vladimirkomlev.workoutdiary.repository.ConfirmationCodeRepository;
 import com.vladimirkomlev.workoutdiary.repository.UserRepository;
+import com.vladimirkomlev.workoutdiary.security.jwt.JwtUser;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 @Service
 @Transactional
 public class UserServiceImpl implements UserService {
     private final UserRepository userRepository;
-    private final BCryptPasswordEncoder passwordEncoder;
-    private final MessageQueues messageQueues;
-    private final ConfirmationCodeRepository confirmationCodeRepository;
+    private final PasswordEncoder passwordEncoder;
+    private final EmailOutbox emailOutbox;
+    private final ConfirmationCodeService confirmationCodeService;
+    private final TransactionTemplate transactionTemplate;
+    private final EmailCoalescer emailCoalescer;
 
     @Autowired
     public UserServiceImpl(
             UserRepository userRepository,
-            BCryptPasswordEncoder passwordEncoder,
-            MessageQueues messageQueues,
-            ConfirmationCodeRepository confirmationCodeRepository
+            PasswordEncoder passwordEncoder,
+            EmailOutbox emailOutbox,
+            ConfirmationCodeService confirmationCodeService,
+            TransactionTemplate transactionTemplate,
+            EmailCoalescer emailCoalescer
     ) {
         this.userRepository = userRepository;
         this.passwordEncoder = passwordEncoder;
-        this.messageQueues = messageQueues;
-        this.confirmationCodeRepository = confirmationCodeRepository;
+        this.emailOutbox = emailOutbox;
+        this.confirmationCodeService = confirmationCodeService;
+        this.transactionTemplate = transactionTemplate;
+        this.emailCoalescer = emailCoalescer;
     }
 
     @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public User register(User user) {
         user.setPassword(passwordEncoder.encode(user.getPassword()));
-        User createdUser = userRepository.save(user);
-        verifyEmail(createdUser);
-        return createdUser;
+        return transactionTemplate.execute(status -> {
+            User createdUser = userRepository.save(user);
+            verifyEmail(createdUser);
+            return createdUser;
+        });
     }
 
     @Override
     public void verifyEmail(User user) {
         User createdUser = userRepository.findByEmailIgnoreCase(user.getEmail());
         if (createdUser != null) {
-            ConfirmationCode confirmationCode = new ConfirmationCode(user);
-            confirmationCodeRepository.save(confirmationCode);
-            EmailMessage message = new EmailMessage();
-            message.setRecipient(user.getEmail());
-            message.setSubject("Confirm your account");
-            message.setMessage("Your confirmation code is: " + confirmationCode.getCode());
-            messageQueues.enqueueEmail(message);
+            sendCode(createdUser, ConfirmationCodePurpose.CONFIRM_EMAIL, "Confirm your account", "Your confirmation code is: ");
         } else {
             throw new NotFoundException("User is not created");
         }
@@ -64,11 +70,9 @@ public class UserServiceImpl implements UserService {
 
     @Override
     public User confirm(String code) {
-        ConfirmationCode confirmationCode = confirmationCodeRepository.findByCode(code);
-        if (confirmationCode != null) {
-            User user = userRepository.findByEmailIgnoreCase(confirmationCode.getUser().getEmail());
+        User user = confirmationCodeService.redeem(code, ConfirmationCodePurpose.CONFIRM_EMAIL);
+        if (user != null) {
             user.setEnabled(true);
-            confirmationCodeRepository.delete(confirmationCode);
             return userRepository.save(user);
         } else {
             throw new NotFoundException("Code not found");
@@ -79,30 +83,28 @@ public class UserServiceImpl implements UserService {
     public void resetPassword(ResetPasswordRequestDto resetPasswordRequestDto) {
         User user = userRepository.findByEmailIgnoreCase(resetPasswordRequestDto.getEmail());
         if (user != null) {
-            ConfirmationCode confirmationCode = new ConfirmationCode(user);
-            confirmationCodeRepository.save(confirmationCode);
-            EmailMessage message = new EmailMessage();
-            message.setRecipient(user.getEmail());
-            message.setSubject("Reset password");
-            message.setMessage("Your reset password code is: " + confirmationCode.getCode());
-            messageQueues.enqueueEmail(message);
+            sendCode(user, ConfirmationCodePurpose.RESET_PASSWORD, "Reset password", "Your reset password code is: ");
         } else {
             throw new NotFoundException("User not found");
         }
     }
 
     @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public void setupPassword(SetupPasswordRequestDto setupPasswordRequestDto) {
-        ConfirmationCode confirmationCode = confirmationCodeRepository.findByCode(setupPasswordRequestDto.getCode());
-        if (confirmationCode != null) {
-            User user = userRepository.findByEmailIgnoreCase(confirmationCode.getUser().getEmail());
-            user.setPassword(passwordEncoder.encode(setupPasswordRequestDto.getPassword()));
-            confirmationCodeRepository.delete(confirmationCode);
-            userRepository.save(user);
-        } else {
-            throw new NotFoundException("Code not found");
-        }
-
+        String password = passwordEncoder.encode(setupPasswordRequestDto.getPassword());
+        transactionTemplate.execute(status -> {
+            User user = confirmationCodeService.redeem(
+                    setupPasswordRequestDto.getCode(),
+                    ConfirmationCodePurpose.RESET_PASSWORD
+            );
+            if (user != null) {
+                user.setPassword(password);
+                return userRepository.save(user);
+            } else {
+                throw new NotFoundException("Code not found");
+            }
+        });
     }
 
     @Override
@@ -120,4 +122,29 @@ public class UserServiceImpl implements UserService {
         String email = ((UserDetails) principal).getUsername();
         return getUserByEmail(email);
     }
-}
\ No newline at end of file
+
+    @Override
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public Long getCurrentUserId() {
+        Object principal = SecurityContextHolder.getContext().getAuthentication().getPrincipal();
+        if (principal instanceof JwtUser) {
+            return ((JwtUser) principal).getId();
+        }
+        return getCurrentUser().getId();
+    }
+
+    private void sendCode(User user, ConfirmationCodePurpose purpose, String subject, String text) {
+        if (!emailCoalescer.tryAcquire(user.getId(), purpose)) {
+            return;
+        }
+        String code = confirmationCodeService.issue(user, purpose);
+        if (code == null) {
+            return;
+        }
+        EmailMessage message = new EmailMessage();
+        message.setRecipient(user.getEmail());
+        message.setSubject(subject);
+        message.setMessage(text + code);
+        emailOutbox.add(message);
+    }
+}
@@ -0,0 +1,125 @@
+package com.vladimirkomlev.workoutdiary.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.vladimirkomlev.workoutdiary.dto.WorkoutResponseDto;
+import com.vladimirkomlev.workoutdiary.dto.WorkoutSummaryResponseDto;
+import com.vladimirkomlev.workoutdiary.infra.messaging.CacheInvalidationPublisher;
+import com.vladimirkomlev.workoutdiary.infra.messaging.InvalidatableCache;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Slice;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+@Component
+public class WorkoutCache implements InvalidatableCache {
+    private static final String NAME = "workouts";
+    private static final int ELEMENT_WEIGHT = 64;
+
+    private final AtomicLong generations = new AtomicLong();
+    private final Cache<Long, Long> userGenerations;
+    private final Cache<String, Slice<?>> lists;
+    private final Cache<String, WorkoutResponseDto> workouts;
+    private final CacheInvalidationPublisher cacheInvalidationPublisher;
+
+    @Autowired
+    public WorkoutCache(
+            @Value("${workout-cache.maximum-size}") long maximumSize,
+            @Value("${workout-cache.lists.maximum-weight}") long maximumListWeight,
+            @Value("${workout-cache.ttl}") long ttlMillis,
+            MeterRegistry meterRegistry,
+            CacheInvalidationPublisher cacheInvalidationPublisher
+    ) {
+        this.cacheInvalidationPublisher = cacheInvalidationPublisher;
+        this.userGenerations = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterAccess(ttlMillis * 2, TimeUnit.MILLISECONDS)
+                .build();
+        this.lists = Caffeine.newBuilder()
+                .maximumWeight(maximumListWeight)
+                .weigher((String key, Slice<?> slice) -> weigh(slice))
+                .expireAfterWrite(ttlMillis, TimeUnit.MILLISECONDS)
+                .recordStats()
+                .build();
+        this.workouts = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(ttlMillis, TimeUnit.MILLISECONDS)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, lists, "workouts.lists");
+        CaffeineCacheMetrics.monitor(meterRegistry, workouts, "workouts.items");
+    }
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    public void invalidate(String key) {
+        evict(Long.valueOf(key));
+    }
+
+    @SuppressWarnings("unchecked")
+    public <T> Slice<T> getList(Long userId, long version, String query, Supplier<Slice<T>> loader) {
+        return (Slice<T>) lists.get(key(userId, version + ":" + query), key -> loader.get());
+    }
+
+    public WorkoutResponseDto get(Long userId, Long workoutId, long version, Supplier<WorkoutResponseDto> loader) {
+        return workouts.get(key(userId, workoutId + ":" + version), key -> loader.get());
+    }
+
+    public void evictAfterCommit(Long userId) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+                @Override
+                public void afterCommit() {
+                    evictEverywhere(userId);
+                }
+            });
+        } else {
+            evictEverywhere(userId);
+        }
+    }
+
+    public void evict(Long userId) {
+        userGenerations.put(userId, generations.incrementAndGet());
+    }
+
+    private void evictEverywhere(Long userId) {
+        evict(userId);
+        cacheInvalidationPublisher.publish(NAME, userId);
+    }
+
+    static int weigh(Slice<?> slice) {
+        long weight = 0;
+        for (Object element : slice.getContent()) {
+            weight += ELEMENT_WEIGHT;
+            if (element instanceof WorkoutResponseDto) {
+                WorkoutResponseDto workout = (WorkoutResponseDto) element;
+                weight += length(workout.getTitle()) + length(workout.getDescription());
+            } else if (element instanceof WorkoutSummaryResponseDto) {
+                WorkoutSummaryResponseDto workout = (WorkoutSummaryResponseDto) element;
+                weight += length(workout.getTitle()) + length(workout.getPreview());
+            }
+        }
+        return (int) Math.min(weight, Integer.MAX_VALUE);
+    }
+
+    private static int length(String value) {
+        return value == null ? 0 : value.length();
+    }
+
+    private String key(Long userId, Object suffix) {
+        long generation = userGenerations.get(userId, id -> generations.incrementAndGet());
+        return userId + ":" + generation + ":" + suffix;
+    }
+}
@@ -1,19 +1,39 @@
 package com.vladimirkomlev.workoutdiary.service;
 
+import com.vladimirkomlev.workoutdiary.dto.WorkoutBulkOperationDto;
+import com.vladimirkomlev.workoutdiary.dto.WorkoutBulkResultDto;
+import com.vladimirkomlev.workoutdiary.dto.WorkoutChangesResponseDto;
 import com.vladimirkomlev.workoutdiary.dto.WorkoutCreateUpdateRequestDto;
+import com.vladimirkomlev.workoutdiary.dto.WorkoutListRequestDto;
+import com.vladimirkomlev.workoutdiary.dto.WorkoutPatchRequestDto;
+import com.vladimirkomlev.workoutdiary.dto.WorkoutResponseDto;
+import com.vladimirkomlev.workoutdiary.dto.WorkoutSummaryResponseDto;
 import com.vladimirkomlev.workoutdiary.model.Workout;
+import org.springframework.data.domain.Slice;
 
 import java.util.List;
 
 public interface WorkoutService {
-    List<Workout> getAllWorkoutsByUserId(Long userId);
+    Slice<WorkoutResponseDto> getAllWorkoutsByUserId(Long userId, long workoutsVersion, WorkoutListRequestDto workoutListRequestDto);
 
-    Workout get(Long userId, Long workoutId);
+    Slice<WorkoutSummaryResponseDto> getWorkoutSummariesByUserId(Long userId, long workoutsVersion, WorkoutListRequestDto workoutListRequestDto);
+
+    WorkoutResponseDto get(Long userId, Long workoutId, long workoutVersion);
+
+    long getWorkoutsVersion(Long userId);
+
+    long getWorkoutVersion(Long userId, Long workoutId);
+
+    WorkoutChangesResponseDto getChanges(Long userId, Long since);
 
     Workout create(WorkoutCreateUpdateRequestDto workoutCreateUpdateRequestDto, Long userId);
 
-    Workout update(WorkoutCreateUpdateRequestDto workoutCreateUpdateRequestDto, Long userId, Long workoutId);
+    WorkoutResponseDto update(WorkoutCreateUpdateRequestDto workoutCreateUpdateRequestDto, Long userId, Long workoutId);
+
+    Workout patch(WorkoutPatchRequestDto workoutPatchRequestDto, Long userId, Long workoutId);
 
     void delete(Long userId, Long workoutId);
 
+    List<WorkoutBulkResultDto> bulk(Long userId, List<WorkoutBulkOperationDto> operations);
+
 }
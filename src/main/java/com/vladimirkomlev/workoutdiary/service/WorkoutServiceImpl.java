@@ -1,63 +1,172 @@
 package com.vladimirkomlev.workoutdiary.service;
 
-import com.vladimirkomlev.workoutdiary.dto.WorkoutCreateUpdateRequestDto;
+import com.vladimirkomlev.workoutdiary.dto.*;
 import com.vladimirkomlev.workoutdiary.exception.NotFoundException;
 import com.vladimirkomlev.workoutdiary.model.User;
 import com.vladimirkomlev.workoutdiary.model.Workout;
+import com.vladimirkomlev.workoutdiary.model.WorkoutTombstone;
+import com.vladimirkomlev.workoutdiary.repository.UserRepository;
 import com.vladimirkomlev.workoutdiary.repository.WorkoutRepository;
+import com.vladimirkomlev.workoutdiary.repository.WorkoutTombstoneRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.security.access.AccessDeniedException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Isolation;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.util.List;
+import javax.validation.Validator;
+import java.time.LocalDate;
+import java.util.*;
+import java.util.function.Function;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 @Service
 @Transactional
 public class WorkoutServiceImpl implements WorkoutService {
+    private static final LocalDate MIN_DATE = LocalDate.of(1, 1, 1);
+    private static final LocalDate MAX_DATE = LocalDate.of(9999, 12, 31);
+
     private final WorkoutRepository workoutRepository;
+    private final WorkoutTombstoneRepository workoutTombstoneRepository;
+    private final UserRepository userRepository;
     private final UserService userService;
+    private final WorkoutCache workoutCache;
+    private final Validator validator;
+
+    @Value("${workout.bulk.max-operations}")
+    private int bulkMaxOperations;
 
     @Autowired
-    public WorkoutServiceImpl(WorkoutRepository workoutRepository, UserService userService) {
+    public WorkoutServiceImpl(
+            WorkoutRepository workoutRepository,
+            WorkoutTombstoneRepository workoutTombstoneRepository,
+            UserRepository userRepository,
+            UserService userService,
+            WorkoutCache workoutCache,
+            Validator validator
+    ) {
         this.workoutRepository = workoutRepository;
+        this.workoutTombstoneRepository = workoutTombstoneRepository;
+        this.userRepository = userRepository;
         this.userService = userService;
+        this.workoutCache = workoutCache;
+        this.validator = validator;
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
+    public Slice<WorkoutResponseDto> getAllWorkoutsByUserId(Long userId, long workoutsVersion, WorkoutListRequestDto workoutListRequestDto) {
+        if (userService.getCurrentUserId().equals(userId)) {
+            return workoutCache.getList(userId, workoutsVersion, listKey(workoutListRequestDto),
+                    () -> findWorkouts(workoutListRequestDto, (from, to, after, pageable) -> isSortedByDate(workoutListRequestDto)
+                            ? workoutRepository.findByUserIdSortedByDate(userId, from, to, after.getDate(), after.getId(), pageable)
+                            : workoutRepository.findByUserIdSortedById(userId, from, to, after.getId(), pageable)));
+        } else {
+            throw new AccessDeniedException("Access denied");
+        }
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
+    public Slice<WorkoutSummaryResponseDto> getWorkoutSummariesByUserId(Long userId, long workoutsVersion, WorkoutListRequestDto workoutListRequestDto) {
+        if (userService.getCurrentUserId().equals(userId)) {
+            return workoutCache.getList(userId, workoutsVersion, listKey(workoutListRequestDto),
+                    () -> findWorkouts(workoutListRequestDto, (from, to, after, pageable) -> isSortedByDate(workoutListRequestDto)
+                            ? workoutRepository.findSummariesByUserIdSortedByDate(userId, from, to, after.getDate(), after.getId(), pageable)
+                            : workoutRepository.findSummariesByUserIdSortedById(userId, from, to, after.getId(), pageable)));
+        } else {
+            throw new AccessDeniedException("Access denied");
+        }
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
+    public WorkoutResponseDto get(Long userId, Long workoutId, long workoutVersion) {
+        if (userService.getCurrentUserId().equals(userId)) {
+            return workoutCache.get(userId, workoutId, workoutVersion,
+                    () -> workoutRepository.findResponseByIdAndUserId(workoutId, userId)
+                            .orElseThrow(() -> new NotFoundException("Workout not found")));
+        } else {
+            throw new AccessDeniedException("Access denied");
+        }
     }
 
     @Override
-    public List<Workout> getAllWorkoutsByUserId(Long userId) {
-        User currentUser = userService.getCurrentUser();
-        if (currentUser.getId().equals(userId)) {
-            return workoutRepository.findAllByOrderByIdDesc()
-                    .stream()
-                    .filter(workout -> workout.getUser().getId().equals(userId))
-                    .collect(Collectors.toList());
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
+    public long getWorkoutsVersion(Long userId) {
+        if (userService.getCurrentUserId().equals(userId)) {
+            return workoutsVersion(userId);
         } else {
             throw new AccessDeniedException("Access denied");
         }
     }
 
     @Override
-    public Workout get(Long userId, Long workoutId) {
-        User currentUser = userService.getCurrentUser();
-        Workout workout = workoutRepository.findById(workoutId).orElseThrow(() -> new NotFoundException("Workout not found"));
-        if (currentUser.getId().equals(userId) & workout.getUser().getId().equals(userId)) {
-            return workout;
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
+    public long getWorkoutVersion(Long userId, Long workoutId) {
+        if (userService.getCurrentUserId().equals(userId)) {
+            return workoutVersion(userId, workoutId);
         } else {
             throw new AccessDeniedException("Access denied");
         }
     }
 
+    @Override
+    @Transactional(readOnly = true, isolation = Isolation.REPEATABLE_READ)
+    public WorkoutChangesResponseDto getChanges(Long userId, Long since) {
+        if (userService.getCurrentUserId().equals(userId)) {
+            long after = since == null ? -1 : since;
+            return new WorkoutChangesResponseDto(
+                    workoutRepository.findChangedSince(userId, after),
+                    since == null ? Collections.emptyList() : workoutTombstoneRepository.findWorkoutIdsDeletedSince(userId, after),
+                    workoutsVersion(userId)
+            );
+        } else {
+            throw new AccessDeniedException("Access denied");
+        }
+    }
+
+    private long workoutsVersion(Long userId) {
+        return userRepository.findWorkoutsVersionById(userId);
+    }
+
+    private long workoutVersion(Long userId, Long workoutId) {
+        return workoutRepository.findVersionByIdAndUserId(workoutId, userId)
+                .orElseThrow(() -> new NotFoundException("Workout not found"));
+    }
+
+    private static <T> Slice<T> findWorkouts(WorkoutListRequestDto workoutListRequestDto, WorkoutListQuery<T> query) {
+        Integer limit = workoutListRequestDto.getLimit();
+        Pageable pageable = limit == null ? Pageable.unpaged() : PageRequest.of(0, limit + 1);
+        LocalDate from = workoutListRequestDto.getFrom() == null ? MIN_DATE : workoutListRequestDto.getFrom();
+        LocalDate to = workoutListRequestDto.getTo() == null ? MAX_DATE : workoutListRequestDto.getTo();
+        WorkoutCursor after = workoutListRequestDto.getAfter() == null
+                ? new WorkoutCursor(to, Long.MAX_VALUE)
+                : WorkoutCursor.decode(workoutListRequestDto.getAfter());
+        List<T> workouts = query.find(from, to, after, pageable);
+        if (limit != null && workouts.size() > limit) {
+            return new SliceImpl<>(workouts.subList(0, limit), pageable, true);
+        }
+        return new SliceImpl<>(workouts, pageable, false);
+    }
+
     @Override
     public Workout create(WorkoutCreateUpdateRequestDto workoutCreateUpdateRequestDto, Long userId) {
-        User currentUser = userService.getCurrentUser();
-        if (currentUser.getId().equals(userId)) {
+        if (userService.getCurrentUserId().equals(userId)) {
+            long changeVersion = workoutsChanged(userId);
             Workout workout = new Workout();
             workout.setTitle(workoutCreateUpdateRequestDto.getTitle());
             workout.setDate(workoutCreateUpdateRequestDto.getDate());
             workout.setDescription(workoutCreateUpdateRequestDto.getDescription());
-            workout.setUser(currentUser);
+            workout.setUser(userRepository.getOne(userId));
+            workout.setChangeVersion(changeVersion);
             return workoutRepository.save(workout);
         } else {
             throw new AccessDeniedException("Access denied");
@@ -65,13 +174,56 @@ public class WorkoutServiceImpl implements WorkoutService {
     }
 
     @Override
-    public Workout update(WorkoutCreateUpdateRequestDto workoutCreateUpdateRequestDto, Long userId, Long workoutId) {
-        User currentUser = userService.getCurrentUser();
-        Workout workout = workoutRepository.findById(workoutId).orElseThrow(() -> new NotFoundException("Workout not found"));
-        if (currentUser.getId().equals(userId) & workout.getUser().getId().equals(userId)) {
-            workout.setTitle(workoutCreateUpdateRequestDto.getTitle());
-            workout.setDate(workoutCreateUpdateRequestDto.getDate());
-            workout.setDescription(workoutCreateUpdateRequestDto.getDescription());
+    public WorkoutResponseDto update(WorkoutCreateUpdateRequestDto workoutCreateUpdateRequestDto, Long userId, Long workoutId) {
+        if (userService.getCurrentUserId().equals(userId)) {
+            long changeVersion = workoutsChanged(userId);
+            int updated = workoutRepository.updateByIdAndUserId(
+                    workoutId,
+                    userId,
+                    workoutCreateUpdateRequestDto.getTitle(),
+                    workoutCreateUpdateRequestDto.getDate(),
+                    workoutCreateUpdateRequestDto.getDescription(),
+                    Workout.descriptionPreview(workoutCreateUpdateRequestDto.getDescription()),
+                    changeVersion
+            );
+            if (updated == 0) {
+                throw new NotFoundException("Workout not found");
+            }
+            return new WorkoutResponseDto(
+                    workoutId,
+                    workoutCreateUpdateRequestDto.getTitle(),
+                    workoutCreateUpdateRequestDto.getDate(),
+                    workoutCreateUpdateRequestDto.getDescription()
+            );
+        } else {
+            throw new AccessDeniedException("Access denied");
+        }
+    }
+
+    @Override
+    public Workout patch(WorkoutPatchRequestDto workoutPatchRequestDto, Long userId, Long workoutId) {
+        if (userService.getCurrentUserId().equals(userId)) {
+            Workout workout = workoutRepository.findByIdAndUserId(workoutId, userId)
+                    .orElseThrow(() -> new NotFoundException("Workout not found"));
+            String title = workoutPatchRequestDto.getTitle();
+            LocalDate date = workoutPatchRequestDto.getDate();
+            String description = workoutPatchRequestDto.getDescription();
+            boolean changed = title != null && !title.equals(workout.getTitle())
+                    || date != null && !date.equals(workout.getDate())
+                    || description != null && !description.equals(workout.getDescription());
+            if (!changed) {
+                return workout;
+            }
+            workout.setChangeVersion(workoutsChanged(userId));
+            if (title != null) {
+                workout.setTitle(title);
+            }
+            if (date != null) {
+                workout.setDate(date);
+            }
+            if (description != null) {
+                workout.setDescription(description);
+            }
             return workoutRepository.save(workout);
         } else {
             throw new AccessDeniedException("Access denied");
@@ -80,12 +232,122 @@ public class WorkoutServiceImpl implements WorkoutService {
 
     @Override
     public void delete(Long userId, Long workoutId) {
-        User currentUser = userService.getCurrentUser();
-        Workout workout = workoutRepository.findById(workoutId).orElseThrow(() -> new NotFoundException("Workout not found"));
-        if (currentUser.getId().equals(userId) & workout.getUser().getId().equals(userId)) {
-            workoutRepository.delete(workout);
+        if (userService.getCurrentUserId().equals(userId)) {
+            long changeVersion = workoutsChanged(userId);
+            if (workoutRepository.deleteByIdAndUserId(workoutId, userId) == 0) {
+                throw new NotFoundException("Workout not found");
+            }
+            workoutTombstoneRepository.save(new WorkoutTombstone(workoutId, userId, changeVersion));
         } else {
             throw new AccessDeniedException("Access denied");
         }
     }
+
+    @Override
+    public List<WorkoutBulkResultDto> bulk(Long userId, List<WorkoutBulkOperationDto> operations) {
+        if (!userService.getCurrentUserId().equals(userId)) {
+            throw new AccessDeniedException("Access denied");
+        }
+        if (operations.isEmpty() || operations.size() > bulkMaxOperations) {
+            throw new IllegalArgumentException("Expected 1 to " + bulkMaxOperations + " operations");
+        }
+        if (operations.contains(null)) {
+            throw new IllegalArgumentException("Operations should not be null");
+        }
+        Set<Long> ids = operations.stream()
+                .filter(operation -> operation.getAction() != WorkoutBulkAction.CREATE && operation.getId() != null)
+                .map(WorkoutBulkOperationDto::getId)
+                .collect(Collectors.toSet());
+        Map<Long, Workout> workouts = ids.isEmpty() ? new HashMap<>() : workoutRepository.findAllByUserIdAndIdIn(userId, ids).stream()
+                .collect(Collectors.toMap(Workout::getId, Function.identity()));
+        List<List<String>> operationErrors = operations.stream()
+                .map(this::validate)
+                .collect(Collectors.toList());
+        boolean changed = IntStream.range(0, operations.size())
+                .anyMatch(i -> operationErrors.get(i).isEmpty()
+                        && (operations.get(i).getAction() == WorkoutBulkAction.CREATE || workouts.containsKey(operations.get(i).getId())));
+        long changeVersion = changed ? workoutsChanged(userId) : 0;
+        User user = userRepository.getOne(userId);
+        List<WorkoutTombstone> tombstones = new ArrayList<>();
+        List<WorkoutBulkResultDto> results = new ArrayList<>(operations.size());
+        for (int i = 0; i < operations.size(); i++) {
+            WorkoutBulkOperationDto operation = operations.get(i);
+            List<String> errors = operationErrors.get(i);
+            if (!errors.isEmpty()) {
+                results.add(new WorkoutBulkResultDto(operation.getId(), WorkoutBulkStatus.INVALID, errors));
+                continue;
+            }
+            if (operation.getAction() == WorkoutBulkAction.CREATE) {
+                Workout workout = new Workout();
+                copy(operation.getWorkout(), workout);
+                workout.setUser(user);
+                workout.setChangeVersion(changeVersion);
+                workoutRepository.save(workout);
+                results.add(new WorkoutBulkResultDto(workout.getId(), WorkoutBulkStatus.CREATED));
+                continue;
+            }
+            Workout workout = operation.getId() == null ? null : workouts.get(operation.getId());
+            if (workout == null) {
+                results.add(new WorkoutBulkResultDto(operation.getId(), WorkoutBulkStatus.NOT_FOUND));
+            } else if (operation.getAction() == WorkoutBulkAction.UPDATE) {
+                copy(operation.getWorkout(), workout);
+                workout.setChangeVersion(changeVersion);
+                results.add(new WorkoutBulkResultDto(workout.getId(), WorkoutBulkStatus.UPDATED));
+            } else {
+                workouts.remove(workout.getId());
+                workoutRepository.delete(workout);
+                tombstones.add(new WorkoutTombstone(workout.getId(), userId, changeVersion));
+                results.add(new WorkoutBulkResultDto(workout.getId(), WorkoutBulkStatus.DELETED));
+            }
+        }
+        workoutTombstoneRepository.saveAll(tombstones);
+        return results;
+    }
+
+    private List<String> validate(WorkoutBulkOperationDto operation) {
+        if (operation.getAction() == null) {
+            return Collections.singletonList("action: should not be null");
+        }
+        return operation.getAction() == WorkoutBulkAction.DELETE
+                ? Collections.emptyList()
+                : validate(operation.getWorkout());
+    }
+
+    private List<String> validate(WorkoutCreateUpdateRequestDto workoutCreateUpdateRequestDto) {
+        if (workoutCreateUpdateRequestDto == null) {
+            return Collections.singletonList("workout: should not be null");
+        }
+        return validator.validate(workoutCreateUpdateRequestDto).stream()
+                .map(violation -> violation.getPropertyPath() + ": " + violation.getMessage())
+                .sorted()
+                .collect(Collectors.toList());
+    }
+
+    private static void copy(WorkoutCreateUpdateRequestDto workoutCreateUpdateRequestDto, Workout workout) {
+        workout.setTitle(workoutCreateUpdateRequestDto.getTitle());
+        workout.setDate(workoutCreateUpdateRequestDto.getDate());
+        workout.setDescription(workoutCreateUpdateRequestDto.getDescription());
+    }
+
+    private long workoutsChanged(Long userId) {
+        workoutCache.evictAfterCommit(userId);
+        return userRepository.nextWorkoutsVersion(userId);
+    }
+
+    private static String listKey(WorkoutListRequestDto workoutListRequestDto) {
+        return workoutListRequestDto.getLimit() + "|" + workoutListRequestDto.getAfter() + "|"
+                + workoutListRequestDto.getFrom() + "|" + workoutListRequestDto.getTo() + "|"
+                + workoutListRequestDto.getSort() + "|" + workoutListRequestDto.getView();
+    }
+
+    private static boolean isSortedByDate(WorkoutListRequestDto workoutListRequestDto) {
+        if (workoutListRequestDto.getSort() == null) {
+            return workoutListRequestDto.getLimit() != null;
+        }
+        return workoutListRequestDto.getSort().equals("date");
+    }
+
+    private interface WorkoutListQuery<T> {
+        List<T> find(LocalDate from, LocalDate to, WorkoutCursor after, Pageable pageable);
+    }
 }
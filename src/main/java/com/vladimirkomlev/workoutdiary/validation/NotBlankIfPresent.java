@@ -0,0 +1,20 @@
+package com.vladimirkomlev.workoutdiary.validation;
+
+import javax.validation.Constraint;
+import javax.validation.Payload;
+import javax.validation.constraints.Pattern;
+import java.lang.annotation.Retention;
+import java.lang.annotation.Target;
+
+import static java.lang.annotation.ElementType.FIELD;
+import static java.lang.annotation.RetentionPolicy.RUNTIME;
+
+@Pattern(regexp = "(?s).*\\S.*", message = "should not be blank")
+@Constraint(validatedBy = {})
+@Target(FIELD)
+@Retention(RUNTIME)
+public @interface NotBlankIfPresent {
+    String message() default "";
+    Class<?>[] groups() default {};
+    Class<? extends Payload>[] payload() default {};
+}
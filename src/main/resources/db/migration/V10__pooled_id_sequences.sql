@@ -0,0 +1,14 @@
+ALTER TABLE users ALTER COLUMN id DROP IDENTITY;
+CREATE SEQUENCE users_id_seq INCREMENT BY 50 OWNED BY users.id;
+SELECT setval('users_id_seq', (SELECT COALESCE(MAX(id), 0) + 1 FROM users), false);
+ALTER TABLE users ALTER COLUMN id SET DEFAULT nextval('users_id_seq');
+
+ALTER TABLE workouts ALTER COLUMN id DROP IDENTITY;
+CREATE SEQUENCE workouts_id_seq INCREMENT BY 50 OWNED BY workouts.id;
+SELECT setval('workouts_id_seq', (SELECT COALESCE(MAX(id), 0) + 1 FROM workouts), false);
+ALTER TABLE workouts ALTER COLUMN id SET DEFAULT nextval('workouts_id_seq');
+
+ALTER TABLE confirmation_codes ALTER COLUMN id DROP IDENTITY;
+CREATE SEQUENCE confirmation_codes_id_seq INCREMENT BY 50 OWNED BY confirmation_codes.id;
+SELECT setval('confirmation_codes_id_seq', (SELECT COALESCE(MAX(id), 0) + 1 FROM confirmation_codes), false);
+ALTER TABLE confirmation_codes ALTER COLUMN id SET DEFAULT nextval('confirmation_codes_id_seq');
@@ -0,0 +1,8 @@
+ALTER TABLE workouts ADD COLUMN description_preview VARCHAR(100);
+
+UPDATE workouts SET description_preview = CASE
+  WHEN char_length(description) <= 100 THEN description
+  ELSE left(description, 99) || '…'
+END;
+
+ALTER TABLE workouts ALTER COLUMN description_preview SET NOT NULL;
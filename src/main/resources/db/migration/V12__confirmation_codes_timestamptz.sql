@@ -0,0 +1,4 @@
+ALTER TABLE confirmation_codes
+  ALTER COLUMN created_at TYPE TIMESTAMPTZ,
+  ALTER COLUMN expires_at TYPE TIMESTAMPTZ,
+  ALTER COLUMN sent_at TYPE TIMESTAMPTZ;
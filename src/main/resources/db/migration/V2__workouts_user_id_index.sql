@@ -0,0 +1 @@
+CREATE INDEX workouts_user_id_id_idx ON workouts (user_id, id DESC);
@@ -0,0 +1 @@
+CREATE INDEX workouts_user_id_workout_date_id_idx ON workouts (user_id, workout_date DESC, id DESC);
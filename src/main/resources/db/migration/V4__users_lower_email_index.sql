@@ -0,0 +1,17 @@
+DO $$
+DECLARE
+  duplicates TEXT;
+BEGIN
+  SELECT string_agg(lower_email, ', ') INTO duplicates
+  FROM (SELECT lower(email) AS lower_email FROM users GROUP BY lower(email) HAVING count(*) > 1) d;
+  IF duplicates IS NOT NULL THEN
+    RAISE EXCEPTION 'Emails differing only in case must be merged before users.email becomes case-insensitive: %', duplicates;
+  END IF;
+END
+$$;
+
+UPDATE users SET email = lower(email) WHERE email <> lower(email);
+
+CREATE UNIQUE INDEX users_lower_email_idx ON users (lower(email));
+
+ALTER TABLE users DROP CONSTRAINT users_email_key;
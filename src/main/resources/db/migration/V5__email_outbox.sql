@@ -0,0 +1,7 @@
+CREATE TABLE email_outbox (
+  id            BIGINT GENERATED BY DEFAULT AS IDENTITY (START WITH 1 INCREMENT 1) PRIMARY KEY,
+  recipient     VARCHAR(255) NOT NULL,
+  subject       VARCHAR(255) NOT NULL,
+  message       VARCHAR(4000) NOT NULL,
+  created_at    TIMESTAMP NOT NULL DEFAULT now()
+);
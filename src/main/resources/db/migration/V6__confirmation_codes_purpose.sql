@@ -0,0 +1,14 @@
+ALTER TABLE confirmation_codes ADD COLUMN purpose VARCHAR(20);
+ALTER TABLE confirmation_codes ADD COLUMN sent_at TIMESTAMP;
+
+UPDATE confirmation_codes c
+SET purpose = CASE WHEN u.is_enabled THEN 'RESET_PASSWORD' ELSE 'CONFIRM_EMAIL' END
+FROM users u
+WHERE u.id = c.user_id;
+
+DELETE FROM confirmation_codes c
+USING confirmation_codes newer
+WHERE newer.user_id = c.user_id AND newer.purpose = c.purpose AND newer.id > c.id;
+
+ALTER TABLE confirmation_codes ALTER COLUMN purpose SET NOT NULL;
+CREATE UNIQUE INDEX confirmation_codes_user_id_purpose_idx ON confirmation_codes (user_id, purpose);
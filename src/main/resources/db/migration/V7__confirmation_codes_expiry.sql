@@ -0,0 +1,9 @@
+ALTER TABLE confirmation_codes ADD COLUMN created_at TIMESTAMP NOT NULL DEFAULT now();
+ALTER TABLE confirmation_codes ADD COLUMN expires_at TIMESTAMP NOT NULL DEFAULT now() + INTERVAL '1 day';
+
+DELETE FROM confirmation_codes c
+USING confirmation_codes newer
+WHERE newer.code = c.code AND newer.id > c.id;
+
+CREATE UNIQUE INDEX confirmation_codes_code_idx ON confirmation_codes (code);
+CREATE INDEX confirmation_codes_expires_at_idx ON confirmation_codes (expires_at);
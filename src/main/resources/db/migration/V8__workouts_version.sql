@@ -0,0 +1,2 @@
+ALTER TABLE users ADD COLUMN workouts_version BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE workouts ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
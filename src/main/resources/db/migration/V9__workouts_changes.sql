@@ -0,0 +1,11 @@
+ALTER TABLE workouts ADD COLUMN change_version BIGINT NOT NULL DEFAULT 0;
+
+CREATE INDEX workouts_user_id_change_version_idx ON workouts (user_id, change_version);
+
+CREATE TABLE workout_tombstones (
+  workout_id      BIGINT PRIMARY KEY,
+  user_id         BIGINT REFERENCES users (id) ON DELETE CASCADE NOT NULL,
+  change_version  BIGINT NOT NULL
+);
+
+CREATE INDEX workout_tombstones_user_id_change_version_idx ON workout_tombstones (user_id, change_version);
@@ -0,0 +1,7 @@
+package com.vladimirkomlev.workoutdiary;
+
+/**
+ * JUnit category for slow tests that are run by the {@code benchmark} task instead of {@code test}.
+ */
+public interface Benchmark {
+}
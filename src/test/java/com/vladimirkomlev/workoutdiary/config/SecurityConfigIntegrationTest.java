@@ -0,0 +1,44 @@
+package com.vladimirkomlev.workoutdiary.config;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.junit.Assert.assertThat;
+import static org.springframework.http.HttpStatus.OK;
+import static org.springframework.http.HttpStatus.UNAUTHORIZED;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+public class SecurityConfigIntegrationTest {
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Test
+    public void infoIsPublic() {
+        assertThat(restTemplate.getForEntity("/actuator/info", String.class).getStatusCode(), equalTo(OK));
+    }
+
+    @Test
+    public void emailQueuesRequireActuatorUser() {
+        assertThat(restTemplate.getForEntity("/actuator/emailqueues", String.class).getStatusCode(), equalTo(UNAUTHORIZED));
+        assertThat(restTemplate.withBasicAuth("swagger", "3cxn@p")
+                .getForEntity("/actuator/emailqueues", String.class).getStatusCode(), equalTo(UNAUTHORIZED));
+    }
+
+    @Test
+    public void metricsRequireActuatorUser() {
+        assertThat(restTemplate.getForEntity("/actuator/metrics", String.class).getStatusCode(), equalTo(UNAUTHORIZED));
+        assertThat(restTemplate.getForEntity("/actuator/metrics/jwt.cache.size", String.class).getStatusCode(), equalTo(UNAUTHORIZED));
+    }
+
+    @Test
+    public void metricsWithActuatorUser() {
+        assertThat(restTemplate.withBasicAuth("actuator", "7fq!kz2m")
+                .getForEntity("/actuator/metrics", String.class).getStatusCode(), equalTo(OK));
+    }
+}
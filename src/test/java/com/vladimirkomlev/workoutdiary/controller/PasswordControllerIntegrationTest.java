@@ -51,7 +51,7 @@ public class PasswordControllerIntegrationTest {
     }
 
     @Test
-    @Sql(value = "/create-confirmation-code-before.sql", executionPhase = BEFORE_TEST_METHOD)
+    @Sql(value = "/create-reset-code-before.sql", executionPhase = BEFORE_TEST_METHOD)
     public void setupPassword() {
         SetupPasswordRequestDto request = new SetupPasswordRequestDto();
         request.setCode("code");
@@ -64,6 +64,18 @@ public class PasswordControllerIntegrationTest {
 
     @Test
     @Sql(value = "/create-confirmation-code-before.sql", executionPhase = BEFORE_TEST_METHOD)
+    public void setupPasswordWithEmailConfirmationCode() {
+        SetupPasswordRequestDto request = new SetupPasswordRequestDto();
+        request.setCode("code");
+        request.setPassword("NewPassword!1");
+
+        exceptionRule.expect(NotFoundException.class);
+        exceptionRule.expectMessage("Code not found");
+        passwordController.setupPassword(request);
+    }
+
+    @Test
+    @Sql(value = "/create-reset-code-before.sql", executionPhase = BEFORE_TEST_METHOD)
     public void setupPasswordWithNonExistentCode() {
         SetupPasswordRequestDto request = new SetupPasswordRequestDto();
         request.setCode("12345");
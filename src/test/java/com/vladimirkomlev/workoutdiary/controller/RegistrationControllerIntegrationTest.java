@@ -83,6 +83,16 @@ public class RegistrationControllerIntegrationTest {
         assertThat(responseBody.getEmail(), equalTo("david@myemail.com"));
     }
 
+    @Test
+    @Sql(value = "/create-reset-code-before.sql", executionPhase = BEFORE_TEST_METHOD)
+    public void confirmWithResetPasswordCode() {
+        exceptionRule.expect(NotFoundException.class);
+        exceptionRule.expectMessage("Code not found");
+        ConfirmationRequestDto confirmationRequest = new ConfirmationRequestDto();
+        confirmationRequest.setCode("code");
+        registrationController.confirm(confirmationRequest);
+    }
+
     @Test
     public void confirmWithNonExistentCode() {
         exceptionRule.expect(NotFoundException.class);
@@ -1,9 +1,12 @@
 package com.vladimirkomlev.workoutdiary.controller;
 
 import com.vladimirkomlev.workoutdiary.dto.WorkoutCreateUpdateRequestDto;
+import com.vladimirkomlev.workoutdiary.dto.WorkoutListRequestDto;
 import com.vladimirkomlev.workoutdiary.dto.WorkoutResponseDto;
 import com.vladimirkomlev.workoutdiary.exception.NotFoundException;
+import com.vladimirkomlev.workoutdiary.service.WorkoutCache;
 import org.hamcrest.Matchers;
+import org.junit.Before;
 import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.ExpectedException;
@@ -12,10 +15,13 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.context.SpringBootTest.WebEnvironment;
 import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
 import org.springframework.security.access.AccessDeniedException;
 import org.springframework.security.test.context.support.WithUserDetails;
 import org.springframework.test.context.jdbc.Sql;
 import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.web.context.request.ServletWebRequest;
 
 import java.time.LocalDate;
 import java.util.List;
@@ -24,6 +30,11 @@ import static java.util.Objects.requireNonNull;
 import static org.hamcrest.CoreMatchers.equalTo;
 import static org.hamcrest.Matchers.greaterThan;
 import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertNull;
+import static org.springframework.http.HttpHeaders.ETAG;
+import static org.springframework.http.HttpHeaders.IF_NONE_MATCH;
+import static org.springframework.http.HttpHeaders.LINK;
+import static org.springframework.http.HttpStatus.NOT_MODIFIED;
 import static org.springframework.http.HttpStatus.OK;
 import static org.springframework.test.context.jdbc.Sql.ExecutionPhase.AFTER_TEST_METHOD;
 import static org.springframework.test.context.jdbc.Sql.ExecutionPhase.BEFORE_TEST_METHOD;
@@ -38,9 +49,17 @@ public class WorkoutControllerIntegrationTest {
     @Autowired
     WorkoutController workoutController;
 
+    @Autowired
+    WorkoutCache workoutCache;
+
     @Rule
     public ExpectedException exceptionRule = ExpectedException.none();
 
+    @Before
+    public void setUp() {
+        workoutCache.evict(25L);
+    }
+
     @Test
     public void createWorkout() {
         WorkoutCreateUpdateRequestDto request =
@@ -68,7 +87,7 @@ public class WorkoutControllerIntegrationTest {
 
     @Test
     public void getAllWorkouts() {
-        ResponseEntity response = workoutController.getAllWorkouts(25L);
+        ResponseEntity response = workoutController.getAllWorkouts(25L, new WorkoutListRequestDto(), webRequest());
         List<WorkoutResponseDto> workouts = (List<WorkoutResponseDto>) response.getBody();
 
         assertThat(response.getStatusCode(), equalTo(OK));
@@ -81,16 +100,61 @@ public class WorkoutControllerIntegrationTest {
         assertThat(workouts.get(1).getTitle(), Matchers.equalTo("Cycling"));
     }
 
+    @Test
+    public void getWorkoutsPage() {
+        WorkoutListRequestDto request = new WorkoutListRequestDto();
+        request.setLimit(1);
+
+        ResponseEntity response = workoutController.getAllWorkouts(25L, request, webRequest());
+        List<WorkoutResponseDto> workouts = (List<WorkoutResponseDto>) response.getBody();
+
+        assertThat(response.getStatusCode(), equalTo(OK));
+        assertThat(requireNonNull(workouts).size(), Matchers.equalTo(1));
+        assertThat(workouts.get(0).getId(), Matchers.equalTo(11L));
+        assertThat(response.getHeaders().getFirst(LINK), Matchers.containsString("rel=\"next\""));
+    }
+
+    @Test
+    public void getAllWorkoutsNotModified() {
+        MockHttpServletResponse firstResponse = new MockHttpServletResponse();
+        workoutController.getAllWorkouts(25L, new WorkoutListRequestDto(), new ServletWebRequest(new MockHttpServletRequest("GET", ""), firstResponse));
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "");
+        request.addHeader(IF_NONE_MATCH, requireNonNull(firstResponse.getHeader(ETAG)));
+        MockHttpServletResponse secondResponse = new MockHttpServletResponse();
+
+        ResponseEntity response = workoutController.getAllWorkouts(25L, new WorkoutListRequestDto(), new ServletWebRequest(request, secondResponse));
+
+        assertNull(response);
+        assertThat(secondResponse.getStatus(), equalTo(NOT_MODIFIED.value()));
+    }
+
+    @Test
+    public void getAllWorkoutsModifiedAfterCreate() {
+        MockHttpServletResponse firstResponse = new MockHttpServletResponse();
+        workoutController.getAllWorkouts(25L, new WorkoutListRequestDto(), new ServletWebRequest(new MockHttpServletRequest("GET", ""), firstResponse));
+        workoutController.createWorkout(25L, new WorkoutCreateUpdateRequestDto(LocalDate.parse("2014-05-22"), "Swimming 2 miles", "Swimming"));
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "");
+        request.addHeader(IF_NONE_MATCH, requireNonNull(firstResponse.getHeader(ETAG)));
+        MockHttpServletResponse secondResponse = new MockHttpServletResponse();
+
+        ResponseEntity response = workoutController.getAllWorkouts(25L, new WorkoutListRequestDto(), new ServletWebRequest(request, secondResponse));
+        List<WorkoutResponseDto> workouts = (List<WorkoutResponseDto>) requireNonNull(response).getBody();
+
+        assertThat(response.getStatusCode(), equalTo(OK));
+        assertThat(requireNonNull(workouts).size(), Matchers.equalTo(3));
+        assertThat(secondResponse.getHeader(ETAG), Matchers.not(firstResponse.getHeader(ETAG)));
+    }
+
     @Test
     public void getAllWorkoutsByNotCurrentUser() {
         exceptionRule.expect(AccessDeniedException.class);
         exceptionRule.expectMessage("Access denied");
-        workoutController.getAllWorkouts(100L);
+        workoutController.getAllWorkouts(100L, new WorkoutListRequestDto(), webRequest());
     }
 
     @Test
     public void getWorkout() {
-        ResponseEntity response = workoutController.getWorkout(25L, 10L);
+        ResponseEntity response = workoutController.getWorkout(25L, 10L, webRequest());
         WorkoutResponseDto responseBody = (WorkoutResponseDto) response.getBody();
 
         assertThat(response.getStatusCode(), equalTo(OK));
@@ -98,18 +162,32 @@ public class WorkoutControllerIntegrationTest {
         assertThat(responseBody.getDescription(), Matchers.equalTo("Cycling 30 miles"));
     }
 
+    @Test
+    public void getWorkoutNotModified() {
+        MockHttpServletResponse firstResponse = new MockHttpServletResponse();
+        workoutController.getWorkout(25L, 10L, new ServletWebRequest(new MockHttpServletRequest("GET", ""), firstResponse));
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "");
+        request.addHeader(IF_NONE_MATCH, requireNonNull(firstResponse.getHeader(ETAG)));
+        MockHttpServletResponse secondResponse = new MockHttpServletResponse();
+
+        ResponseEntity response = workoutController.getWorkout(25L, 10L, new ServletWebRequest(request, secondResponse));
+
+        assertNull(response);
+        assertThat(secondResponse.getStatus(), equalTo(NOT_MODIFIED.value()));
+    }
+
     @Test
     public void getWorkoutByNotCurrentUser() {
         exceptionRule.expect(AccessDeniedException.class);
         exceptionRule.expectMessage("Access denied");
-        workoutController.getWorkout(100L, 10L);
+        workoutController.getWorkout(100L, 10L, webRequest());
     }
 
     @Test
     public void getNonExistentWorkout() {
         exceptionRule.expect(NotFoundException.class);
         exceptionRule.expectMessage("Workout not found");
-        workoutController.getWorkout(25L, 25L);
+        workoutController.getWorkout(25L, 25L, webRequest());
     }
 
     @Test
@@ -163,4 +241,8 @@ public class WorkoutControllerIntegrationTest {
         exceptionRule.expectMessage("Access denied");
         workoutController.deleteWorkout(100L, 10L);
     }
-}
\ No newline at end of file
+
+    private static ServletWebRequest webRequest() {
+        return new ServletWebRequest(new MockHttpServletRequest("GET", ""), new MockHttpServletResponse());
+    }
+}
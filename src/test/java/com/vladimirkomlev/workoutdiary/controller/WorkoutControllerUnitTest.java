@@ -3,8 +3,7 @@ package com.vladimirkomlev.workoutdiary.controller;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.SerializationFeature;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
-import com.vladimirkomlev.workoutdiary.dto.WorkoutCreateUpdateRequestDto;
-import com.vladimirkomlev.workoutdiary.dto.WorkoutResponseDto;
+import com.vladimirkomlev.workoutdiary.dto.*;
 import com.vladimirkomlev.workoutdiary.model.User;
 import com.vladimirkomlev.workoutdiary.model.Workout;
 import com.vladimirkomlev.workoutdiary.service.WorkoutService;
@@ -12,21 +11,27 @@ import org.junit.Assert;
 import org.junit.Before;
 import org.junit.BeforeClass;
 import org.junit.Test;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 
 import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 
 import static org.hamcrest.CoreMatchers.equalTo;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 import static org.springframework.http.MediaType.APPLICATION_JSON;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 public class WorkoutControllerUnitTest {
@@ -115,6 +120,31 @@ public class WorkoutControllerUnitTest {
                 .andReturn();
     }
 
+    @Test
+    public void bulkWorkouts() throws Exception {
+        long currentUserId = 200;
+        List<WorkoutBulkOperationDto> request = Arrays.asList(
+                new WorkoutBulkOperationDto(WorkoutBulkAction.CREATE, null,
+                        new WorkoutCreateUpdateRequestDto(LocalDate.parse("2014-05-22"), "Running 5 miles", "Morning running")),
+                new WorkoutBulkOperationDto(WorkoutBulkAction.DELETE, 45L, null)
+        );
+        List<WorkoutBulkResultDto> response = Arrays.asList(
+                new WorkoutBulkResultDto(46L, WorkoutBulkStatus.CREATED),
+                new WorkoutBulkResultDto(45L, WorkoutBulkStatus.NOT_FOUND)
+        );
+        when(workoutService.bulk(eq(currentUserId), anyList())).thenReturn(response);
+
+        MvcResult mvcResult = mockMvc.perform(post("/users/{userId}/workouts/bulk", currentUserId)
+                .contentType(APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isOk())
+                .andReturn();
+
+        Assert.assertThat(mvcResult.getResponse().getContentAsString(), equalTo(objectMapper.writeValueAsString(response)));
+        verify(workoutService, times(1)).bulk(eq(currentUserId), argThat(operations ->
+                operations.size() == 2 && operations.get(1).getAction() == WorkoutBulkAction.DELETE));
+    }
+
     @Test
     public void getAllWorkouts() throws Exception {
         long workoutId = 44;
@@ -122,12 +152,11 @@ public class WorkoutControllerUnitTest {
         LocalDate date = LocalDate.parse("2014-05-22");
         String description = "Running 5 miles";
         long currentUserId = 200;
-        User mockCurrentUser = new User();
-        mockCurrentUser.setId(currentUserId);
-        Workout mockWorkout = new Workout(workoutId, date, title, description, mockCurrentUser);
-        List<Workout> mockWorkouts = new ArrayList<>();
+        WorkoutResponseDto mockWorkout = new WorkoutResponseDto(workoutId, title, date, description);
+        List<WorkoutResponseDto> mockWorkouts = new ArrayList<>();
         mockWorkouts.add(mockWorkout);
-        when(workoutService.getAllWorkoutsByUserId(currentUserId)).thenReturn(mockWorkouts);
+        when(workoutService.getAllWorkoutsByUserId(eq(currentUserId), anyLong(), any(WorkoutListRequestDto.class)))
+                .thenReturn(new SliceImpl<>(mockWorkouts));
         WorkoutResponseDto expectedWorkoutResponse = new WorkoutResponseDto();
         expectedWorkoutResponse.setId(workoutId);
         expectedWorkoutResponse.setTitle(title);
@@ -144,6 +173,89 @@ public class WorkoutControllerUnitTest {
         Assert.assertThat(actualBody, equalTo(expectedBody));
     }
 
+    @Test
+    public void getWorkoutsPage() throws Exception {
+        long workoutId = 44;
+        LocalDate date = LocalDate.parse("2014-05-22");
+        long currentUserId = 200;
+        WorkoutResponseDto mockWorkout = new WorkoutResponseDto(workoutId, "Morning running", date, "Running 5 miles");
+        when(workoutService.getAllWorkoutsByUserId(eq(currentUserId), anyLong(), any(WorkoutListRequestDto.class)))
+                .thenReturn(new SliceImpl<>(Collections.singletonList(mockWorkout), PageRequest.of(0, 1), true));
+        String expectedLink = "</users/200/workouts?limit=1&sort=date&after="
+                + new WorkoutCursor(date, workoutId).encode() + ">; rel=\"next\"";
+
+        mockMvc.perform(get("/users/{userId}/workouts", currentUserId).param("limit", "1").param("sort", "date"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Link", expectedLink));
+    }
+
+    @Test
+    public void getWorkoutSummariesPage() throws Exception {
+        long workoutId = 44;
+        LocalDate date = LocalDate.parse("2014-05-22");
+        long currentUserId = 200;
+        WorkoutSummaryResponseDto mockWorkout = new WorkoutSummaryResponseDto(workoutId, "Morning running", date, "Running 5 miles");
+        when(workoutService.getWorkoutSummariesByUserId(eq(currentUserId), anyLong(), any(WorkoutListRequestDto.class)))
+                .thenReturn(new SliceImpl<>(Collections.singletonList(mockWorkout), PageRequest.of(0, 1), true));
+        String expectedLink = "</users/200/workouts?limit=1&view=summary&after="
+                + new WorkoutCursor(date, workoutId).encode() + ">; rel=\"next\"";
+
+        MvcResult mvcResult = mockMvc.perform(get("/users/{userId}/workouts", currentUserId).param("limit", "1").param("view", "summary"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Link", expectedLink))
+                .andReturn();
+
+        String actualBody = mvcResult.getResponse().getContentAsString();
+        String expectedBody = objectMapper.writeValueAsString(Collections.singletonList(mockWorkout));
+
+        Assert.assertThat(actualBody, equalTo(expectedBody));
+        verify(workoutService, never()).getAllWorkoutsByUserId(anyLong(), anyLong(), any(WorkoutListRequestDto.class));
+    }
+
+    @Test
+    public void getAllWorkoutsWithInvalidView() throws Exception {
+        mockMvc.perform(get("/users/{userId}/workouts", 200L).param("view", "compact"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    public void getAllWorkoutsWithETag() throws Exception {
+        long currentUserId = 200;
+        when(workoutService.getWorkoutsVersion(currentUserId)).thenReturn(7L);
+        when(workoutService.getAllWorkoutsByUserId(eq(currentUserId), anyLong(), any(WorkoutListRequestDto.class)))
+                .thenReturn(new SliceImpl<>(Collections.emptyList()));
+
+        mockMvc.perform(get("/users/{userId}/workouts", currentUserId))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"7\""));
+
+        verify(workoutService, times(1)).getWorkoutsVersion(currentUserId);
+        verify(workoutService, times(1)).getAllWorkoutsByUserId(eq(currentUserId), eq(7L), any(WorkoutListRequestDto.class));
+    }
+
+    @Test
+    public void getAllWorkoutsNotModified() throws Exception {
+        long currentUserId = 200;
+        when(workoutService.getWorkoutsVersion(currentUserId)).thenReturn(7L);
+
+        mockMvc.perform(get("/users/{userId}/workouts", currentUserId).header("If-None-Match", "\"7\""))
+                .andExpect(status().isNotModified());
+
+        verify(workoutService, never()).getAllWorkoutsByUserId(anyLong(), anyLong(), any(WorkoutListRequestDto.class));
+    }
+
+    @Test
+    public void getWorkoutsPageWithInvalidLimit() throws Exception {
+        mockMvc.perform(get("/users/{userId}/workouts", 200L).param("limit", "0"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    public void getAllWorkoutsWithInvalidSort() throws Exception {
+        mockMvc.perform(get("/users/{userId}/workouts", 200L).param("sort", "title"))
+                .andExpect(status().isBadRequest());
+    }
+
     @Test
     public void getWorkout() throws Exception {
         long workoutId = 44;
@@ -151,10 +263,9 @@ public class WorkoutControllerUnitTest {
         LocalDate date = LocalDate.parse("2014-05-22");
         String description = "Running 5 miles";
         long currentUserId = 200;
-        User mockCurrentUser = new User();
-        mockCurrentUser.setId(currentUserId);
-        Workout mockWorkout = new Workout(workoutId, date, title, description, mockCurrentUser);
-        when(workoutService.get(currentUserId, workoutId)).thenReturn(mockWorkout);
+        WorkoutResponseDto mockWorkout = new WorkoutResponseDto(workoutId, title, date, description);
+        when(workoutService.getWorkoutVersion(currentUserId, workoutId)).thenReturn(2L);
+        when(workoutService.get(currentUserId, workoutId, 2L)).thenReturn(mockWorkout);
         WorkoutResponseDto expectedWorkoutResponse = new WorkoutResponseDto();
         expectedWorkoutResponse.setId(workoutId);
         expectedWorkoutResponse.setTitle(title);
@@ -171,6 +282,32 @@ public class WorkoutControllerUnitTest {
         Assert.assertThat(actualBody, equalTo(expectedBody));
     }
 
+    @Test
+    public void getWorkoutChanges() throws Exception {
+        long currentUserId = 200;
+        WorkoutResponseDto changed = new WorkoutResponseDto(44, "Morning running", LocalDate.parse("2014-05-22"), "Running 5 miles");
+        WorkoutChangesResponseDto response = new WorkoutChangesResponseDto(Collections.singletonList(changed), Collections.singletonList(45L), 12);
+        when(workoutService.getChanges(currentUserId, 9L)).thenReturn(response);
+
+        MvcResult mvcResult = mockMvc.perform(get("/users/{userId}/workouts/changes", currentUserId).param("since", "9"))
+                .andExpect(status().isOk())
+                .andReturn();
+
+        Assert.assertThat(mvcResult.getResponse().getContentAsString(), equalTo(objectMapper.writeValueAsString(response)));
+    }
+
+    @Test
+    public void getWorkoutNotModified() throws Exception {
+        long currentUserId = 200;
+        long workoutId = 44;
+        when(workoutService.getWorkoutVersion(currentUserId, workoutId)).thenReturn(2L);
+
+        mockMvc.perform(get("/users/{userId}/workouts/{workoutId}", currentUserId, workoutId).header("If-None-Match", "\"2\""))
+                .andExpect(status().isNotModified());
+
+        verify(workoutService, never()).get(anyLong(), anyLong(), anyLong());
+    }
+
     @Test
     public void updateWorkout() throws Exception {
         long workoutId = 44;
@@ -178,9 +315,7 @@ public class WorkoutControllerUnitTest {
         LocalDate date = LocalDate.parse("2014-05-22");
         String description = "Running 5 miles";
         long currentUserId = 200;
-        User mockCurrentUser = new User();
-        mockCurrentUser.setId(currentUserId);
-        Workout mockWorkout = new Workout(workoutId, date, title, description, mockCurrentUser);
+        WorkoutResponseDto mockWorkout = new WorkoutResponseDto(workoutId, title, date, description);
         WorkoutCreateUpdateRequestDto request = new WorkoutCreateUpdateRequestDto(date, description, title);
         when(workoutService.update(any(WorkoutCreateUpdateRequestDto.class), anyLong(), anyLong())).thenReturn(mockWorkout);
         WorkoutResponseDto expectedWorkoutResponse = new WorkoutResponseDto();
@@ -201,6 +336,38 @@ public class WorkoutControllerUnitTest {
         Assert.assertThat(actualBody, equalTo(expectedBody));
     }
 
+    @Test
+    public void patchWorkout() throws Exception {
+        long workoutId = 44;
+        long currentUserId = 200;
+        LocalDate date = LocalDate.parse("2014-05-23");
+        User mockCurrentUser = new User();
+        mockCurrentUser.setId(currentUserId);
+        Workout mockWorkout = new Workout(workoutId, date, "Morning running", "Running 5 miles", mockCurrentUser);
+        when(workoutService.patch(any(WorkoutPatchRequestDto.class), anyLong(), anyLong())).thenReturn(mockWorkout);
+
+        mockMvc.perform(patch("/users/{userId}/workouts/{workoutId}", currentUserId, workoutId)
+                .contentType(APPLICATION_JSON)
+                .content("{\"date\":\"2014-05-23\"}"))
+                .andExpect(status().isOk())
+                .andReturn();
+
+        verify(workoutService, times(1)).patch(argThat((WorkoutPatchRequestDto request) ->
+                date.equals(request.getDate()) && request.getTitle() == null && request.getDescription() == null),
+                eq(currentUserId), eq(workoutId));
+    }
+
+    @Test
+    public void patchWorkoutWithBlankTitle() throws Exception {
+        mockMvc.perform(patch("/users/{userId}/workouts/{workoutId}", 200L, 44L)
+                .contentType(APPLICATION_JSON)
+                .content("{\"title\":\" \"}"))
+                .andExpect(status().isBadRequest())
+                .andReturn();
+
+        verify(workoutService, never()).patch(any(WorkoutPatchRequestDto.class), anyLong(), anyLong());
+    }
+
     @Test
     public void deleteWorkout() throws Exception {
         long currentUserId = 22;
@@ -0,0 +1,56 @@
+package com.vladimirkomlev.workoutdiary.infra.email;
+
+import com.vladimirkomlev.workoutdiary.model.ConfirmationCodePurpose;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class EmailCoalescerUnitTest {
+    private EmailCoalescer emailCoalescer = new EmailCoalescer(60000);
+
+    @Before
+    public void setUp() {
+        TransactionSynchronizationManager.initSynchronization();
+    }
+
+    @After
+    public void tearDown() {
+        TransactionSynchronizationManager.clearSynchronization();
+    }
+
+    @Test
+    public void tryAcquireWithinWindowAfterCommit() {
+        assertTrue(emailCoalescer.tryAcquire(25L, ConfirmationCodePurpose.CONFIRM_EMAIL));
+        complete(TransactionSynchronization.STATUS_COMMITTED);
+
+        assertFalse(emailCoalescer.tryAcquire(25L, ConfirmationCodePurpose.CONFIRM_EMAIL));
+    }
+
+    @Test
+    public void tryAcquireAfterRollback() {
+        assertTrue(emailCoalescer.tryAcquire(25L, ConfirmationCodePurpose.CONFIRM_EMAIL));
+        complete(TransactionSynchronization.STATUS_ROLLED_BACK);
+
+        assertTrue(emailCoalescer.tryAcquire(25L, ConfirmationCodePurpose.CONFIRM_EMAIL));
+    }
+
+    @Test
+    public void tryAcquireForAnotherPurpose() {
+        assertTrue(emailCoalescer.tryAcquire(25L, ConfirmationCodePurpose.CONFIRM_EMAIL));
+
+        assertTrue(emailCoalescer.tryAcquire(25L, ConfirmationCodePurpose.RESET_PASSWORD));
+    }
+
+    private static void complete(int status) {
+        for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+            synchronization.afterCompletion(status);
+        }
+        TransactionSynchronizationManager.clearSynchronization();
+        TransactionSynchronizationManager.initSynchronization();
+    }
+}
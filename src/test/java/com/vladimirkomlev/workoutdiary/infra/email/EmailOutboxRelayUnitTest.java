@@ -0,0 +1,91 @@
+package com.vladimirkomlev.workoutdiary.infra.email;
+
+import com.vladimirkomlev.workoutdiary.infra.messaging.MessageQueues;
+import com.vladimirkomlev.workoutdiary.model.OutboxEmail;
+import com.vladimirkomlev.workoutdiary.repository.OutboxEmailRepository;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.amqp.AmqpException;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.junit.Assert.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+public class EmailOutboxRelayUnitTest {
+    private OutboxEmailRepository outboxEmailRepository = mock(OutboxEmailRepository.class);
+    private MessageQueues messageQueues = mock(MessageQueues.class);
+    private EmailOutboxRelay relay = new EmailOutboxRelay(
+            outboxEmailRepository,
+            messageQueues,
+            new TransactionTemplate(mock(PlatformTransactionManager.class))
+    );
+
+    @Before
+    public void setUp() {
+        ReflectionTestUtils.setField(relay, "batchSize", 1);
+    }
+
+    @Test
+    public void relay() {
+        EmailMessage message = new EmailMessage();
+        message.setRecipient("test@myemail.com");
+        message.setSubject("Confirm your account");
+        message.setMessage("Your confirmation code is: 123456");
+        List<OutboxEmail> batch = Collections.singletonList(new OutboxEmail(message));
+        when(outboxEmailRepository.lockNextBatch(1))
+                .thenReturn(batch)
+                .thenReturn(Collections.emptyList());
+
+        relay.relay();
+
+        verify(messageQueues, times(1)).enqueueEmails(argThat(messages ->
+                messages.size() == 1 && messages.get(0).getRecipient().equals("test@myemail.com")));
+        verify(outboxEmailRepository, times(1)).deleteInBatch(batch);
+        verify(outboxEmailRepository, times(2)).lockNextBatch(1);
+    }
+
+    @Test
+    public void relayKeepsReturnedEmails() {
+        EmailMessage message = new EmailMessage();
+        message.setRecipient("test@myemail.com");
+        EmailMessage unroutable = new EmailMessage();
+        unroutable.setRecipient("unroutable@myemail.com");
+        OutboxEmail enqueued = new OutboxEmail(message);
+        List<OutboxEmail> batch = Arrays.asList(enqueued, new OutboxEmail(unroutable));
+        ReflectionTestUtils.setField(relay, "batchSize", 2);
+        when(outboxEmailRepository.lockNextBatch(2)).thenReturn(batch);
+        when(messageQueues.enqueueEmails(anyList())).thenAnswer(invocation -> {
+            List<EmailMessage> messages = invocation.getArgument(0);
+            return Collections.singletonList(messages.get(1));
+        });
+
+        relay.relay();
+
+        verify(outboxEmailRepository, times(1)).deleteInBatch(Collections.singletonList(enqueued));
+        verify(outboxEmailRepository, times(1)).lockNextBatch(2);
+    }
+
+    @Test
+    public void relayWhenPublishIsNotConfirmed() {
+        List<OutboxEmail> batch = Collections.singletonList(new OutboxEmail(new EmailMessage()));
+        when(outboxEmailRepository.lockNextBatch(1)).thenReturn(batch);
+        doThrow(new AmqpException("nack")).when(messageQueues).enqueueEmails(anyList());
+
+        try {
+            relay.relay();
+            fail("Expected AmqpException");
+        } catch (AmqpException e) {
+            assertThat(e.getMessage(), equalTo("nack"));
+        }
+
+        verify(outboxEmailRepository, never()).deleteInBatch(anyList());
+    }
+}
@@ -0,0 +1,81 @@
+package com.vladimirkomlev.workoutdiary.infra.email;
+
+import com.vladimirkomlev.workoutdiary.infra.messaging.MessageQueues;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.amqp.AmqpException;
+import org.springframework.amqp.AmqpRejectAndDontRequeueException;
+import org.springframework.mail.MailParseException;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.SimpleMailMessage;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.*;
+
+public class EmailSenderUnitTest {
+    private JavaMailSender mailSender = mock(JavaMailSender.class);
+    private MessageQueues messageQueues = mock(MessageQueues.class);
+    private EmailSender emailSender = new EmailSender(mailSender, messageQueues);
+    private EmailMessage message = new EmailMessage();
+
+    @Before
+    public void setUp() {
+        ReflectionTestUtils.setField(emailSender, "username", "workoutdiary.service@gmail.com");
+        ReflectionTestUtils.setField(emailSender, "retryDelays", new long[]{5000, 30000});
+        message.setRecipient("test@myemail.com");
+        message.setSubject("Confirm your account");
+        message.setMessage("Your confirmation code is: 123456");
+    }
+
+    @Test
+    public void sendEmail() {
+        emailSender.sendEmail(message, null);
+
+        verify(mailSender, times(1)).send(any(SimpleMailMessage.class));
+        verify(messageQueues, never()).retryEmail(any(EmailMessage.class), anyInt());
+    }
+
+    @Test
+    public void sendEmailRetriesWithoutBlocking() {
+        doThrow(new MailSendException("Connection refused")).when(mailSender).send(any(SimpleMailMessage.class));
+
+        emailSender.sendEmail(message, null);
+        emailSender.sendEmail(message, 1);
+
+        verify(messageQueues, times(1)).retryEmail(message, 1);
+        verify(messageQueues, times(1)).retryEmail(message, 2);
+    }
+
+    @Test(expected = AmqpRejectAndDontRequeueException.class)
+    public void sendEmailWhenRetriesAreExhausted() {
+        doThrow(new MailSendException("Connection refused")).when(mailSender).send(any(SimpleMailMessage.class));
+
+        try {
+            emailSender.sendEmail(message, 2);
+        } finally {
+            verify(messageQueues, never()).retryEmail(any(EmailMessage.class), anyInt());
+        }
+    }
+
+    @Test(expected = AmqpRejectAndDontRequeueException.class)
+    public void sendEmailWhenRetryIsNotConfirmed() {
+        doThrow(new MailSendException("Connection refused")).when(mailSender).send(any(SimpleMailMessage.class));
+        doThrow(new AmqpException("Message was returned as unroutable")).when(messageQueues).retryEmail(message, 1);
+
+        emailSender.sendEmail(message, null);
+    }
+
+    @Test(expected = AmqpRejectAndDontRequeueException.class)
+    public void sendEmailWithPermanentFailure() {
+        doThrow(new MailParseException("Invalid address")).when(mailSender).send(any(SimpleMailMessage.class));
+
+        try {
+            emailSender.sendEmail(message, null);
+        } finally {
+            verify(messageQueues, never()).retryEmail(any(EmailMessage.class), anyInt());
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package com.vladimirkomlev.workoutdiary.infra.email;
+
+import com.icegreen.greenmail.junit.GreenMailRule;
+import com.icegreen.greenmail.util.ServerSetupTest;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.springframework.mail.SimpleMailMessage;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.junit.Assert.assertThat;
+
+public class PooledJavaMailSenderIntegrationTest {
+    @Rule
+    public final GreenMailRule greenMail = new GreenMailRule(ServerSetupTest.SMTP);
+
+    private PooledJavaMailSender mailSender;
+
+    @Before
+    public void setUp() {
+        greenMail.setUser("workoutdiary@localhost", "workoutdiary", "password");
+        mailSender = createMailSender(30000);
+    }
+
+    @After
+    public void tearDown() {
+        mailSender.destroy();
+    }
+
+    @Test
+    public void sendReusesConnection() throws Exception {
+        mailSender.send(message("first@myemail.com"));
+        mailSender.send(message("second@myemail.com"));
+        mailSender.send(message("third@myemail.com"));
+
+        assertThat(greenMail.getReceivedMessages().length, equalTo(3));
+        assertThat(mailSender.getIdleConnectionCount(), equalTo(1));
+    }
+
+    @Test
+    public void sendBatchOverOneConnection() throws Exception {
+        mailSender.send(message("first@myemail.com"), message("second@myemail.com"), message("third@myemail.com"));
+
+        assertThat(greenMail.getReceivedMessages().length, equalTo(3));
+        assertThat(mailSender.getIdleConnectionCount(), equalTo(1));
+    }
+
+    @Test
+    public void evictIdle() {
+        mailSender.destroy();
+        mailSender = createMailSender(0);
+        mailSender.send(message("first@myemail.com"));
+
+        mailSender.evictIdle();
+
+        assertThat(mailSender.getIdleConnectionCount(), equalTo(0));
+        mailSender.send(message("second@myemail.com"));
+        assertThat(greenMail.getReceivedMessages().length, equalTo(2));
+    }
+
+    private PooledJavaMailSender createMailSender(long idleTimeout) {
+        PooledJavaMailSender sender = new PooledJavaMailSender(2, idleTimeout);
+        sender.setHost("localhost");
+        sender.setPort(ServerSetupTest.SMTP.getPort());
+        sender.setUsername("workoutdiary");
+        sender.setPassword("password");
+        sender.getJavaMailProperties().put("mail.smtp.auth", "true");
+        return sender;
+    }
+
+    private SimpleMailMessage message(String recipient) {
+        SimpleMailMessage message = new SimpleMailMessage();
+        message.setFrom("workoutdiary@localhost");
+        message.setTo(recipient);
+        message.setSubject("Confirm your account");
+        message.setText("Your confirmation code is: 123456");
+        return message;
+    }
+}
@@ -0,0 +1,47 @@
+package com.vladimirkomlev.workoutdiary.infra.messaging;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.Set;
+
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+public class CacheInvalidationListenerUnitTest {
+    private InvalidatableCache cache = mock(InvalidatableCache.class);
+    private CacheInvalidationPublisher publisher = mock(CacheInvalidationPublisher.class);
+    private CacheInvalidationListener listener;
+
+    @Before
+    public void setUp() {
+        when(cache.getName()).thenReturn("workouts");
+        when(publisher.getNodeId()).thenReturn("node-1");
+        listener = new CacheInvalidationListener(Collections.singletonList(cache), publisher);
+    }
+
+    @Test
+    public void invalidateFromAnotherNode() {
+        listener.invalidate(new CacheInvalidationMessage("node-2", Collections.<String, Set<String>>singletonMap(
+                "workouts", Collections.singleton("25"))));
+
+        verify(cache, times(1)).invalidate("25");
+    }
+
+    @Test
+    public void invalidateSkipsOwnEvents() {
+        listener.invalidate(new CacheInvalidationMessage("node-1", Collections.<String, Set<String>>singletonMap(
+                "workouts", Collections.singleton("25"))));
+
+        verify(cache, never()).invalidate(anyString());
+    }
+
+    @Test
+    public void invalidateUnknownCache() {
+        listener.invalidate(new CacheInvalidationMessage("node-2", Collections.<String, Set<String>>singletonMap(
+                "users", Collections.singleton("25"))));
+
+        verify(cache, never()).invalidate(anyString());
+    }
+}
@@ -0,0 +1,78 @@
+package com.vladimirkomlev.workoutdiary.infra.messaging;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.amqp.AmqpException;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.junit.Assert.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+public class CacheInvalidationPublisherUnitTest {
+    private MessageQueues messageQueues = mock(MessageQueues.class);
+    private CacheInvalidationPublisher publisher = new CacheInvalidationPublisher(messageQueues);
+
+    @Before
+    public void setUp() {
+        ReflectionTestUtils.setField(publisher, "batchSize", 2);
+    }
+
+    @Test
+    public void flushCoalescesKeys() {
+        publisher.publish("workouts", 25L);
+        publisher.publish("workouts", 25L);
+        publisher.publish("workouts", 26L);
+
+        publisher.flush();
+
+        ArgumentCaptor<CacheInvalidationMessage> captor = ArgumentCaptor.forClass(CacheInvalidationMessage.class);
+        verify(messageQueues, times(1)).publishCacheInvalidations(captor.capture());
+        assertThat(captor.getValue().getOrigin(), equalTo(publisher.getNodeId()));
+        assertThat(captor.getValue().getKeys().get("workouts"), equalTo(new HashSet<>(Arrays.asList("25", "26"))));
+    }
+
+    @Test
+    public void flushInBatches() {
+        publisher.publish("workouts", 25L);
+        publisher.publish("workouts", 26L);
+        publisher.publish("workouts", 27L);
+
+        publisher.flush();
+
+        ArgumentCaptor<CacheInvalidationMessage> captor = ArgumentCaptor.forClass(CacheInvalidationMessage.class);
+        verify(messageQueues, times(2)).publishCacheInvalidations(captor.capture());
+        List<CacheInvalidationMessage> messages = captor.getAllValues();
+        assertThat(messages.get(0).getKeys().get("workouts").size(), equalTo(2));
+        assertThat(messages.get(1).getKeys().get("workouts").size(), equalTo(1));
+    }
+
+    @Test
+    public void flushWithNothingPending() {
+        publisher.flush();
+
+        verify(messageQueues, never()).publishCacheInvalidations(any(CacheInvalidationMessage.class));
+    }
+
+    @Test
+    public void flushKeepsKeysWhenPublishFails() {
+        publisher.publish("workouts", 25L);
+        doThrow(new AmqpException("connection refused"))
+                .doNothing()
+                .when(messageQueues).publishCacheInvalidations(any(CacheInvalidationMessage.class));
+
+        publisher.flush();
+        publisher.flush();
+
+        ArgumentCaptor<CacheInvalidationMessage> captor = ArgumentCaptor.forClass(CacheInvalidationMessage.class);
+        verify(messageQueues, times(2)).publishCacheInvalidations(captor.capture());
+        assertThat(captor.getAllValues().get(1).getKeys().get("workouts"), equalTo(Collections.singleton("25")));
+    }
+}
@@ -0,0 +1,148 @@
+package com.vladimirkomlev.workoutdiary.infra.messaging;
+
+import com.vladimirkomlev.workoutdiary.infra.email.EmailMessage;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.amqp.AmqpException;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessagePostProcessor;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.rabbit.connection.CorrelationData;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.junit.Assert.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+public class MessageQueuesUnitTest {
+    private RabbitTemplate rabbitTemplate = mock(RabbitTemplate.class);
+    private MessageQueues messageQueues = new MessageQueues(rabbitTemplate);
+
+    @Before
+    public void setUp() {
+        ReflectionTestUtils.setField(messageQueues, "emailQueueName", "emails-queue");
+        ReflectionTestUtils.setField(messageQueues, "emailExchangeName", "emails-exchange");
+        ReflectionTestUtils.setField(messageQueues, "emailRetryExchangeName", "emails-retry-exchange");
+        ReflectionTestUtils.setField(messageQueues, "emailPartitions", 4);
+        ReflectionTestUtils.setField(messageQueues, "confirmTimeout", 100L);
+    }
+
+    @Test
+    public void emailRoutingKey() {
+        Set<String> routingKeys = new HashSet<>();
+        for (int i = 0; i < 100; i++) {
+            String routingKey = messageQueues.emailRoutingKey("user" + i + "@myemail.com");
+            assertTrue(routingKey.matches("emails-queue\\.[0-3]"));
+            routingKeys.add(routingKey);
+        }
+
+        assertThat(routingKeys.size(), equalTo(4));
+        assertThat(messageQueues.emailRoutingKey("Test@MyEmail.com"), equalTo(messageQueues.emailRoutingKey("test@myemail.com")));
+    }
+
+    @Test
+    public void enqueueEmails() {
+        EmailMessage message = new EmailMessage();
+        message.setRecipient("test@myemail.com");
+        confirmEnqueue(true, null);
+
+        List<EmailMessage> returned = messageQueues.enqueueEmails(Collections.singletonList(message));
+
+        assertTrue(returned.isEmpty());
+        verify(rabbitTemplate, times(1)).convertAndSend(
+                eq("emails-exchange"),
+                eq(messageQueues.emailRoutingKey("test@myemail.com")),
+                eq(message),
+                any(CorrelationData.class)
+        );
+    }
+
+    @Test
+    public void enqueueEmailsWhenUnroutable() {
+        EmailMessage message = new EmailMessage();
+        message.setRecipient("test@myemail.com");
+        confirmEnqueue(true, new Message(new byte[0], new MessageProperties()));
+
+        List<EmailMessage> returned = messageQueues.enqueueEmails(Collections.singletonList(message));
+
+        assertThat(returned, equalTo(Collections.singletonList(message)));
+    }
+
+    @Test(expected = AmqpException.class)
+    public void enqueueEmailsWhenNacked() {
+        EmailMessage message = new EmailMessage();
+        message.setRecipient("test@myemail.com");
+        confirmEnqueue(false, null);
+
+        messageQueues.enqueueEmails(Collections.singletonList(message));
+    }
+
+    @Test
+    public void retryEmail() {
+        EmailMessage message = new EmailMessage();
+        message.setRecipient("test@myemail.com");
+        confirmRetry(true, null);
+
+        messageQueues.retryEmail(message, 2);
+
+        verify(rabbitTemplate, times(1)).convertAndSend(
+                eq("emails-retry-exchange"),
+                eq(messageQueues.emailRoutingKey("test@myemail.com")),
+                eq(message),
+                any(MessagePostProcessor.class),
+                any(CorrelationData.class)
+        );
+    }
+
+    @Test(expected = AmqpException.class)
+    public void retryEmailWhenNacked() {
+        EmailMessage message = new EmailMessage();
+        message.setRecipient("test@myemail.com");
+        confirmRetry(false, null);
+
+        messageQueues.retryEmail(message, 2);
+    }
+
+    @Test(expected = AmqpException.class)
+    public void retryEmailWhenUnroutable() {
+        EmailMessage message = new EmailMessage();
+        message.setRecipient("test@myemail.com");
+        confirmRetry(true, new Message(new byte[0], new MessageProperties()));
+
+        messageQueues.retryEmail(message, 2);
+    }
+
+    @Test(expected = AmqpException.class)
+    public void retryEmailWithoutConfirm() {
+        EmailMessage message = new EmailMessage();
+        message.setRecipient("test@myemail.com");
+
+        messageQueues.retryEmail(message, 2);
+    }
+
+    private void confirmEnqueue(boolean ack, Message returnedMessage) {
+        doAnswer(invocation -> {
+            confirm(invocation.getArgument(3), ack, returnedMessage);
+            return null;
+        }).when(rabbitTemplate).convertAndSend(anyString(), anyString(), any(), any(CorrelationData.class));
+    }
+
+    private void confirmRetry(boolean ack, Message returnedMessage) {
+        doAnswer(invocation -> {
+            confirm(invocation.getArgument(4), ack, returnedMessage);
+            return null;
+        }).when(rabbitTemplate).convertAndSend(anyString(), anyString(), any(), any(MessagePostProcessor.class), any(CorrelationData.class));
+    }
+
+    private static void confirm(CorrelationData correlationData, boolean ack, Message returnedMessage) {
+        correlationData.setReturnedMessage(returnedMessage);
+        correlationData.getFuture().set(new CorrelationData.Confirm(ack, ack ? null : "nack"));
+    }
+}
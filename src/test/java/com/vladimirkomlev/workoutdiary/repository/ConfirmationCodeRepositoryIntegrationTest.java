@@ -1,6 +1,7 @@
 package com.vladimirkomlev.workoutdiary.repository;
 
 import com.vladimirkomlev.workoutdiary.model.ConfirmationCode;
+import com.vladimirkomlev.workoutdiary.model.ConfirmationCodePurpose;
 import com.vladimirkomlev.workoutdiary.model.User;
 import org.junit.Assert;
 import org.junit.Test;
@@ -11,6 +12,8 @@ import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
 import org.springframework.test.context.junit4.SpringRunner;
 
+import java.time.LocalDateTime;
+
 import static org.hamcrest.Matchers.equalTo;
 import static org.junit.Assert.*;
 
@@ -35,11 +38,94 @@ public class ConfirmationCodeRepositoryIntegrationTest {
         ConfirmationCode code = new ConfirmationCode();
         code.setCode("code");
         code.setUser(user);
+        code.setPurpose(ConfirmationCodePurpose.CONFIRM_EMAIL);
+        code.setExpiresAt(LocalDateTime.now().plusHours(1));
         ConfirmationCode savedCode = entityManager.persist(code);
 
-        ConfirmationCode foundCode = confirmationCodeRepository.findByCode("code");
+        ConfirmationCode foundCode = confirmationCodeRepository.findActiveByCode("code", ConfirmationCodePurpose.CONFIRM_EMAIL);
 
         assertNotNull(foundCode);
         Assert.assertThat(foundCode, equalTo(savedCode));
     }
-}
\ No newline at end of file
+
+    @Test
+    public void findActiveByCodeWhenExpired() {
+        User user = persistUser();
+        ConfirmationCode code = new ConfirmationCode(user, ConfirmationCodePurpose.CONFIRM_EMAIL, LocalDateTime.now().minusMinutes(1));
+        entityManager.persist(code);
+
+        assertNull(confirmationCodeRepository.findActiveByCode(code.getCode(), ConfirmationCodePurpose.CONFIRM_EMAIL));
+    }
+
+    @Test
+    public void findActiveByCodeWithAnotherPurpose() {
+        User user = persistUser();
+        ConfirmationCode code = new ConfirmationCode(user, ConfirmationCodePurpose.CONFIRM_EMAIL, LocalDateTime.now().plusHours(1));
+        entityManager.persist(code);
+
+        assertNull(confirmationCodeRepository.findActiveByCode(code.getCode(), ConfirmationCodePurpose.RESET_PASSWORD));
+    }
+
+    @Test
+    public void deleteExpiredBatch() {
+        User user = persistUser();
+        entityManager.persist(new ConfirmationCode(user, ConfirmationCodePurpose.CONFIRM_EMAIL, LocalDateTime.now().minusMinutes(1)));
+        entityManager.persist(new ConfirmationCode(user, ConfirmationCodePurpose.RESET_PASSWORD, LocalDateTime.now().plusHours(1)));
+
+        int deleted = confirmationCodeRepository.deleteExpiredBatch(10);
+
+        assertThat(deleted, equalTo(1));
+        assertNotNull(confirmationCodeRepository.findByUserIdAndPurpose(user.getId(), ConfirmationCodePurpose.RESET_PASSWORD));
+    }
+
+    @Test
+    public void insertIfAbsent() {
+        User user = persistUser();
+
+        int firstInsert = confirmationCodeRepository.insertIfAbsent("111111", user.getId(), "RESET_PASSWORD", 3600000L);
+        int secondInsert = confirmationCodeRepository.insertIfAbsent("222222", user.getId(), "RESET_PASSWORD", 3600000L);
+        ConfirmationCode foundCode = confirmationCodeRepository.findByUserIdAndPurpose(user.getId(), ConfirmationCodePurpose.RESET_PASSWORD);
+
+        assertThat(firstInsert, equalTo(1));
+        assertThat(secondInsert, equalTo(0));
+        assertThat(foundCode.getCode(), equalTo("111111"));
+    }
+
+    @Test
+    public void insertIfAbsentWithCollidingCode() {
+        User user = persistUser();
+        confirmationCodeRepository.insertIfAbsent("111111", user.getId(), "CONFIRM_EMAIL", 3600000L);
+
+        int inserted = confirmationCodeRepository.insertIfAbsent("111111", user.getId(), "RESET_PASSWORD", 3600000L);
+
+        assertThat(inserted, equalTo(0));
+    }
+
+    @Test
+    public void insertIfAbsentExpiresByDatabaseClock() {
+        User user = persistUser();
+        confirmationCodeRepository.insertIfAbsent("111111", user.getId(), "CONFIRM_EMAIL", 0L);
+
+        assertNull(confirmationCodeRepository.findActiveByCode("111111", ConfirmationCodePurpose.CONFIRM_EMAIL));
+        assertThat(confirmationCodeRepository.deleteExpiredBatch(10), equalTo(1));
+    }
+
+    @Test
+    public void markSentWithinResendWindow() {
+        User user = persistUser();
+        confirmationCodeRepository.insertIfAbsent("111111", user.getId(), "CONFIRM_EMAIL", 3600000L);
+        ConfirmationCode code = confirmationCodeRepository.findByUserIdAndPurpose(user.getId(), ConfirmationCodePurpose.CONFIRM_EMAIL);
+
+        assertThat(confirmationCodeRepository.markSent(code.getId(), 60000L), equalTo(1));
+        assertThat(confirmationCodeRepository.markSent(code.getId(), 60000L), equalTo(0));
+    }
+
+    private User persistUser() {
+        User user = new User();
+        user.setEmail("test1@myemail.com");
+        user.setFirstName("John");
+        user.setLastName("Doe");
+        user.setPassword("Password!1");
+        return entityManager.persist(user);
+    }
+}
@@ -0,0 +1,46 @@
+package com.vladimirkomlev.workoutdiary.repository;
+
+import com.vladimirkomlev.workoutdiary.model.User;
+
+import javax.persistence.*;
+import java.time.LocalDate;
+
+@Entity
+@Table(name = "identity_workouts")
+public class IdentityWorkout {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private long id;
+    @Column(name = "title")
+    private String title;
+    @Column(name = "workout_date")
+    private LocalDate date;
+    @Column(name = "description")
+    private String description;
+    @Column(name = "description_preview")
+    private String descriptionPreview;
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "user_id")
+    private User user;
+    @Version
+    @Column(name = "version")
+    private long version;
+    @Column(name = "change_version")
+    private long changeVersion;
+
+    public IdentityWorkout() {
+
+    }
+
+    public IdentityWorkout(LocalDate date, String title, String description, User user) {
+        this.title = title;
+        this.date = date;
+        this.description = description;
+        this.descriptionPreview = description;
+        this.user = user;
+    }
+
+    public long getId() {
+        return id;
+    }
+}
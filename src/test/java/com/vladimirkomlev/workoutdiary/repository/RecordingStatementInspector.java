@@ -0,0 +1,24 @@
+package com.vladimirkomlev.workoutdiary.repository;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+public class RecordingStatementInspector implements StatementInspector {
+    private static final List<String> statements = new CopyOnWriteArrayList<>();
+
+    @Override
+    public String inspect(String sql) {
+        statements.add(sql);
+        return sql;
+    }
+
+    public static List<String> getStatements() {
+        return statements;
+    }
+
+    public static void clear() {
+        statements.clear();
+    }
+}
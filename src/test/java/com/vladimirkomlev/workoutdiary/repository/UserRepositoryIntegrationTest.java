@@ -7,8 +7,12 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.test.context.TestPropertySource;
 import org.springframework.test.context.junit4.SpringRunner;
 
+import java.util.List;
+
+import static org.hamcrest.Matchers.containsString;
 import static org.hamcrest.Matchers.equalTo;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertThat;
@@ -17,6 +21,8 @@ import static org.junit.Assert.assertThat;
 @RunWith(SpringRunner.class)
 @DataJpaTest
 @AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@TestPropertySource(properties = "spring.jpa.properties.hibernate.session_factory.statement_inspector=" +
+        "com.vladimirkomlev.workoutdiary.repository.RecordingStatementInspector")
 public class UserRepositoryIntegrationTest {
     @Autowired
     private TestEntityManager entityManager;
@@ -39,4 +45,34 @@ public class UserRepositoryIntegrationTest {
         assertNotNull(foundUser);
         assertThat(foundUser, equalTo(savedUserInDb));
     }
-}
\ No newline at end of file
+
+    @Test
+    public void findByEmailIgnoreCaseWithMixedCase() {
+        User user = new User();
+        user.setEmail("test5@myemail.com");
+        user.setFirstName("John");
+        user.setLastName("Doe");
+        user.setPassword("Password!1");
+        User savedUserInDb = entityManager.persist(user);
+
+        User foundUser = userRepository.findByEmailIgnoreCase("Test5@MyEmail.com");
+
+        assertThat(foundUser, equalTo(savedUserInDb));
+    }
+
+    @Test
+    public void findByEmailIgnoreCaseUsesLowerEmailIndex() {
+        RecordingStatementInspector.clear();
+        userRepository.findByEmailIgnoreCase("Test@MyEmail.com");
+        List<String> statements = RecordingStatementInspector.getStatements();
+        assertThat(statements.size(), equalTo(1));
+        String sql = statements.get(0).replace("?", "'Test@MyEmail.com'");
+        entityManager.getEntityManager().createNativeQuery("SET LOCAL enable_seqscan = off").executeUpdate();
+
+        List<?> plan = entityManager.getEntityManager()
+                .createNativeQuery("EXPLAIN " + sql)
+                .getResultList();
+
+        assertThat(plan.toString(), containsString("users_lower_email_idx"));
+    }
+}
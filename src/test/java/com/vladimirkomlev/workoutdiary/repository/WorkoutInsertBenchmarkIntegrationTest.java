@@ -0,0 +1,97 @@
+package com.vladimirkomlev.workoutdiary.repository;
+
+import com.vladimirkomlev.workoutdiary.Benchmark;
+import com.vladimirkomlev.workoutdiary.model.User;
+import com.vladimirkomlev.workoutdiary.model.Workout;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.runner.RunWith;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.test.context.jdbc.Sql;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import java.time.LocalDate;
+import java.util.function.Supplier;
+
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.lessThan;
+import static org.junit.Assert.assertThat;
+import static org.springframework.test.context.jdbc.Sql.ExecutionPhase.BEFORE_TEST_METHOD;
+
+@RunWith(SpringRunner.class)
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Category(Benchmark.class)
+public class WorkoutInsertBenchmarkIntegrationTest {
+    private static final Logger logger = LoggerFactory.getLogger(WorkoutInsertBenchmarkIntegrationTest.class);
+    private static final int ROWS = 10_000;
+    private static final int BATCH_SIZE = 50;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Test
+    @Sql(value = "/create-identity-workouts-before.sql", executionPhase = BEFORE_TEST_METHOD)
+    public void insertWorkouts() {
+        User user = persistUser();
+        LocalDate date = LocalDate.parse("2018-07-01");
+        Statistics statistics = entityManager.getEntityManager().getEntityManagerFactory()
+                .unwrap(SessionFactory.class).getStatistics();
+
+        statistics.clear();
+        long identityNanos = insert(() -> new IdentityWorkout(date, "Running", "Running 5 miles", user));
+        long identityStatements = statistics.getPrepareStatementCount();
+
+        statistics.clear();
+        long pooledNanos = insert(() -> {
+            Workout workout = new Workout();
+            workout.setTitle("Running");
+            workout.setDate(date);
+            workout.setDescription("Running 5 miles");
+            workout.setUser(user);
+            return workout;
+        });
+        long pooledStatements = statistics.getPrepareStatementCount();
+
+        logger.info("Inserted {} workouts: identity ids {} rows/s in {} statements, pooled ids {} rows/s in {} statements",
+                ROWS, rowsPerSecond(identityNanos), identityStatements, rowsPerSecond(pooledNanos), pooledStatements);
+        assertThat(statistics.getEntityInsertCount(), equalTo((long) ROWS));
+        assertThat(identityStatements, greaterThanOrEqualTo((long) ROWS));
+        assertThat(pooledStatements, lessThan((long) ROWS / 10));
+    }
+
+    private long insert(Supplier<Object> workouts) {
+        long start = System.nanoTime();
+        for (int i = 0; i < ROWS; i++) {
+            entityManager.persist(workouts.get());
+            if ((i + 1) % BATCH_SIZE == 0) {
+                entityManager.flush();
+                entityManager.clear();
+            }
+        }
+        entityManager.flush();
+        entityManager.clear();
+        return System.nanoTime() - start;
+    }
+
+    private User persistUser() {
+        User user = new User();
+        user.setEmail("benchmark@myemail.com");
+        user.setFirstName("John");
+        user.setLastName("Doe");
+        user.setPassword("Password!1");
+        return entityManager.persistAndFlush(user);
+    }
+
+    private static long rowsPerSecond(long nanos) {
+        return ROWS * 1_000_000_000L / Math.max(nanos, 1);
+    }
+}
@@ -0,0 +1,157 @@
+package com.vladimirkomlev.workoutdiary.repository;
+
+import com.vladimirkomlev.workoutdiary.dto.WorkoutResponseDto;
+import com.vladimirkomlev.workoutdiary.dto.WorkoutSummaryResponseDto;
+import com.vladimirkomlev.workoutdiary.model.User;
+import com.vladimirkomlev.workoutdiary.model.Workout;
+import org.hibernate.Hibernate;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.jdbc.Sql;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import java.time.LocalDate;
+import java.util.Collections;
+import java.util.List;
+import java.util.regex.Matcher;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.equalTo;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThat;
+import static org.springframework.test.context.jdbc.Sql.ExecutionPhase.BEFORE_TEST_METHOD;
+
+@RunWith(SpringRunner.class)
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@TestPropertySource(properties = "spring.jpa.properties.hibernate.session_factory.statement_inspector=" +
+        "com.vladimirkomlev.workoutdiary.repository.RecordingStatementInspector")
+public class WorkoutRepositoryIntegrationTest {
+    private static final LocalDate MIN_DATE = LocalDate.of(1, 1, 1);
+    private static final LocalDate MAX_DATE = LocalDate.of(9999, 12, 31);
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private WorkoutRepository workoutRepository;
+
+    @Test
+    public void findByUserIdSortedById() {
+        User user = persistUser("test3@myemail.com");
+        User anotherUser = persistUser("test4@myemail.com");
+        Workout first = persistWorkout(user, "Running", "2018-07-01");
+        persistWorkout(anotherUser, "Cycling", "2018-07-01");
+        Workout second = persistWorkout(user, "Swimming", "2018-06-01");
+
+        List<WorkoutResponseDto> workouts = workoutRepository.findByUserIdSortedById(
+                user.getId(), MIN_DATE, MAX_DATE, Long.MAX_VALUE, Pageable.unpaged());
+
+        assertThat(workouts.size(), equalTo(2));
+        assertThat(workouts.get(0).getId(), equalTo(second.getId()));
+        assertThat(workouts.get(1).getId(), equalTo(first.getId()));
+    }
+
+    @Test
+    public void findByUserIdSortedByDate() {
+        User user = persistUser("test3@myemail.com");
+        Workout older = persistWorkout(user, "Running", "2018-06-01");
+        Workout newer = persistWorkout(user, "Swimming", "2018-07-01");
+        Workout sameDay = persistWorkout(user, "Cycling", "2018-07-01");
+
+        List<WorkoutResponseDto> firstPage = workoutRepository.findByUserIdSortedByDate(
+                user.getId(), MIN_DATE, MAX_DATE, MAX_DATE, Long.MAX_VALUE, PageRequest.of(0, 2));
+        List<WorkoutResponseDto> secondPage = workoutRepository.findByUserIdSortedByDate(
+                user.getId(), MIN_DATE, MAX_DATE, newer.getDate(), newer.getId(), PageRequest.of(0, 2));
+
+        assertThat(firstPage.size(), equalTo(2));
+        assertThat(firstPage.get(0).getId(), equalTo(sameDay.getId()));
+        assertThat(firstPage.get(1).getId(), equalTo(newer.getId()));
+        assertThat(secondPage.size(), equalTo(1));
+        assertThat(secondPage.get(0).getId(), equalTo(older.getId()));
+    }
+
+    @Test
+    public void findSummariesByUserIdSortedByDate() {
+        User user = persistUser("test3@myemail.com");
+        Workout workout = persistWorkout(user, "Running", "2018-06-01");
+
+        List<WorkoutSummaryResponseDto> workouts = workoutRepository.findSummariesByUserIdSortedByDate(
+                user.getId(), MIN_DATE, MAX_DATE, MAX_DATE, Long.MAX_VALUE, PageRequest.of(0, 2));
+
+        assertThat(workouts.size(), equalTo(1));
+        assertThat(workouts.get(0).getId(), equalTo(workout.getId()));
+        assertThat(workouts.get(0).getPreview(), equalTo("Running 5 miles"));
+    }
+
+    @Test
+    public void descriptionIsLoadedLazily() {
+        User user = persistUser("test3@myemail.com");
+        Workout workout = persistWorkout(user, "Running", "2018-06-01");
+        entityManager.flush();
+        entityManager.clear();
+
+        Workout loaded = workoutRepository.findAllByUserIdAndIdIn(user.getId(), Collections.singleton(workout.getId())).get(0);
+
+        assertFalse(Hibernate.isPropertyInitialized(loaded, "description"));
+        assertThat(loaded.getDescriptionPreview(), equalTo("Running 5 miles"));
+        assertThat(loaded.getDescription(), equalTo("Running 5 miles"));
+    }
+
+    @Test
+    @Sql(value = "/create-many-workouts-before.sql", executionPhase = BEFORE_TEST_METHOD)
+    public void findByUserIdSortedByIdUsesUserIdIndex() {
+        RecordingStatementInspector.clear();
+        workoutRepository.findByUserIdSortedById(1001L, MIN_DATE, MAX_DATE, Long.MAX_VALUE, PageRequest.of(0, 20));
+
+        assertThat(explainRecordedStatement("1001", "'" + MIN_DATE + "'", "'" + MAX_DATE + "'", String.valueOf(Long.MAX_VALUE), "20"),
+                containsString("workouts_user_id_id_idx"));
+    }
+
+    @Test
+    @Sql(value = "/create-many-workouts-before.sql", executionPhase = BEFORE_TEST_METHOD)
+    public void findByUserIdSortedByDateUsesUserIdWorkoutDateIndex() {
+        RecordingStatementInspector.clear();
+        workoutRepository.findByUserIdSortedByDate(1001L, LocalDate.parse("2018-01-01"), LocalDate.parse("2018-12-31"),
+                LocalDate.parse("2018-03-01"), 500L, PageRequest.of(0, 20));
+
+        assertThat(explainRecordedStatement("1001", "'2018-01-01'", "'2018-12-31'", "'2018-03-01'", "'2018-03-01'", "500", "20"),
+                containsString("workouts_user_id_workout_date_id_idx"));
+    }
+
+    private String explainRecordedStatement(String... literals) {
+        List<String> statements = RecordingStatementInspector.getStatements();
+        assertThat(statements.size(), equalTo(1));
+        String sql = statements.get(0);
+        for (String literal : literals) {
+            sql = sql.replaceFirst("\\?", Matcher.quoteReplacement(literal));
+        }
+        assertFalse(sql.contains("?"));
+        return entityManager.getEntityManager().createNativeQuery("EXPLAIN " + sql).getResultList().toString();
+    }
+
+    private User persistUser(String email) {
+        User user = new User();
+        user.setEmail(email);
+        user.setFirstName("John");
+        user.setLastName("Doe");
+        user.setPassword("Password!1");
+        return entityManager.persist(user);
+    }
+
+    private Workout persistWorkout(User user, String title, String date) {
+        Workout workout = new Workout();
+        workout.setTitle(title);
+        workout.setDate(LocalDate.parse(date));
+        workout.setDescription(title + " 5 miles");
+        workout.setUser(user);
+        return entityManager.persist(workout);
+    }
+}
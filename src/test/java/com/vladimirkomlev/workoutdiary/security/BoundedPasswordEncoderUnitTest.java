@@ -0,0 +1,79 @@
+package com.vladimirkomlev.workoutdiary.security;
+
+import com.vladimirkomlev.workoutdiary.exception.ServiceUnavailableException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.After;
+import org.junit.Test;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.junit.Assert.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+public class BoundedPasswordEncoderUnitTest {
+    private PasswordEncoder delegate = mock(PasswordEncoder.class);
+    private SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private BoundedPasswordEncoder passwordEncoder = new BoundedPasswordEncoder(delegate, 1, 1, meterRegistry);
+    private ExecutorService callers = Executors.newFixedThreadPool(2);
+
+    @After
+    public void tearDown() {
+        callers.shutdownNow();
+        passwordEncoder.destroy();
+    }
+
+    @Test
+    public void encode() {
+        when(delegate.encode("Password!1")).thenReturn("hash");
+
+        assertThat(passwordEncoder.encode("Password!1"), equalTo("hash"));
+        assertThat(meterRegistry.get("executor.execution").tag("name", "password-hashing").timer().count(), equalTo(1L));
+    }
+
+    @Test
+    public void matches() {
+        when(delegate.matches("Password!1", "hash")).thenReturn(true);
+
+        assertTrue(passwordEncoder.matches("Password!1", "hash"));
+    }
+
+    @Test
+    public void encodeWhenQueueIsFull() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(delegate.encode(anyString())).thenAnswer(invocation -> {
+            started.countDown();
+            release.await();
+            return "hash";
+        });
+        Future<String> running = callers.submit(() -> passwordEncoder.encode("first"));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        Future<String> queued = callers.submit(() -> passwordEncoder.encode("second"));
+        awaitQueued(1);
+
+        try {
+            passwordEncoder.encode("third");
+            fail("Expected ServiceUnavailableException");
+        } catch (ServiceUnavailableException e) {
+            release.countDown();
+        }
+
+        assertThat(running.get(5, TimeUnit.SECONDS), equalTo("hash"));
+        assertThat(queued.get(5, TimeUnit.SECONDS), equalTo("hash"));
+    }
+
+    private void awaitQueued(int expected) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (meterRegistry.get("executor.queued").tag("name", "password-hashing").gauge().value() < expected) {
+            assertTrue(System.currentTimeMillis() < deadline);
+            Thread.sleep(10);
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package com.vladimirkomlev.workoutdiary.security.jwt;
+
+import com.vladimirkomlev.workoutdiary.exception.JwtAuthenticationException;
+import com.vladimirkomlev.workoutdiary.model.User;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Base64;
+import java.util.Date;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.*;
+
+public class JwtTokenProviderUnitTest {
+    private static final String SECRET = "secret";
+
+    private UserDetailsService userDetailsService = mock(UserDetailsService.class);
+    private MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private JwtTokenProvider jwtTokenProvider = new JwtTokenProvider();
+
+    @Rule
+    public ExpectedException exceptionRule = ExpectedException.none();
+
+    @Before
+    public void setUp() {
+        ReflectionTestUtils.setField(jwtTokenProvider, "secret", SECRET);
+        ReflectionTestUtils.setField(jwtTokenProvider, "tokenExpirationTimeMillis", 3600000L);
+        ReflectionTestUtils.setField(jwtTokenProvider, "tokenCacheMaximumSize", 100L);
+        ReflectionTestUtils.setField(jwtTokenProvider, "userDetailsService", userDetailsService);
+        ReflectionTestUtils.setField(jwtTokenProvider, "meterRegistry", meterRegistry);
+        jwtTokenProvider.init();
+    }
+
+    @Test
+    public void getAuthentication() {
+        String email = "test@myemail.com";
+        User user = new User();
+        user.setId(25L);
+        user.setEmail(email);
+        user.setEnabled(true);
+        String token = jwtTokenProvider.createToken(user);
+
+        Authentication authentication = jwtTokenProvider.getAuthentication(token);
+        JwtUser principal = (JwtUser) authentication.getPrincipal();
+
+        assertThat(principal.getId(), equalTo(25L));
+        assertThat(principal.getUsername(), equalTo(email));
+        assertTrue(principal.isEnabled());
+        verifyZeroInteractions(userDetailsService);
+    }
+
+    @Test
+    public void getAuthenticationForTokenWithoutUserIdClaim() {
+        String email = "test@myemail.com";
+        String token = Jwts.builder()
+                .setSubject(email)
+                .setExpiration(new Date(System.currentTimeMillis() + 3600000L))
+                .signWith(SignatureAlgorithm.HS256, Base64.getEncoder().encodeToString(SECRET.getBytes()))
+                .compact();
+        when(userDetailsService.loadUserByUsername(email)).thenReturn(JwtUserFactory.create(25L, email, true));
+
+        Authentication authentication = jwtTokenProvider.getAuthentication(token);
+        JwtUser principal = (JwtUser) authentication.getPrincipal();
+
+        assertThat(principal.getId(), equalTo(25L));
+        verify(userDetailsService, times(1)).loadUserByUsername(email);
+    }
+
+    @Test
+    public void getAuthenticationVerifiesTokenOnce() {
+        User user = new User();
+        user.setId(25L);
+        user.setEmail("test@myemail.com");
+        String token = jwtTokenProvider.createToken(user);
+
+        jwtTokenProvider.getAuthentication(token);
+        jwtTokenProvider.getAuthentication(token);
+
+        assertThat(cacheGets("miss"), equalTo(1.0));
+        assertThat(cacheGets("hit"), equalTo(1.0));
+    }
+
+    @Test
+    public void getAuthenticationForInvalidToken() {
+        exceptionRule.expect(JwtAuthenticationException.class);
+        exceptionRule.expectMessage("Jwt token is expired or invalid");
+        jwtTokenProvider.getAuthentication("invalid");
+    }
+
+    @Test
+    public void getAuthenticationForExpiredToken() {
+        String token = Jwts.builder()
+                .setSubject("test@myemail.com")
+                .setExpiration(new Date(System.currentTimeMillis() - 1000L))
+                .signWith(SignatureAlgorithm.HS256, Base64.getEncoder().encodeToString(SECRET.getBytes()))
+                .compact();
+
+        exceptionRule.expect(JwtAuthenticationException.class);
+        exceptionRule.expectMessage("Jwt token is expired or invalid");
+        jwtTokenProvider.getAuthentication(token);
+    }
+
+    private double cacheGets(String result) {
+        return meterRegistry.get("cache.gets")
+                .tag("cache", "jwt.verified-tokens")
+                .tag("result", result)
+                .functionCounter()
+                .count();
+    }
+}
@@ -0,0 +1,78 @@
+package com.vladimirkomlev.workoutdiary.service;
+
+import com.vladimirkomlev.workoutdiary.model.ConfirmationCodePurpose;
+import com.vladimirkomlev.workoutdiary.model.User;
+import com.vladimirkomlev.workoutdiary.repository.UserRepository;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Optional;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+
+public class HmacConfirmationCodeServiceUnitTest {
+    private UserRepository userRepository = mock(UserRepository.class);
+    private HmacConfirmationCodeService confirmationCodeService = new HmacConfirmationCodeService(userRepository, "secret");
+    private User user = new User();
+
+    @Before
+    public void setUp() {
+        ReflectionTestUtils.setField(confirmationCodeService, "codeTtlMillis", 86400000L);
+        user.setId(25L);
+        user.setEmail("test@myemail.com");
+        user.setPassword("$2a$10$WpR3CCt8otTarm1xI8OMu.ip/edANp2JEdTWpqyM9uRhSXo5gpB0.");
+        when(userRepository.findById(25L)).thenReturn(Optional.of(user));
+    }
+
+    @Test
+    public void redeem() {
+        String code = confirmationCodeService.issue(user, ConfirmationCodePurpose.CONFIRM_EMAIL);
+
+        assertThat(confirmationCodeService.redeem(code, ConfirmationCodePurpose.CONFIRM_EMAIL), equalTo(user));
+    }
+
+    @Test
+    public void redeemWithOtherPurpose() {
+        String code = confirmationCodeService.issue(user, ConfirmationCodePurpose.CONFIRM_EMAIL);
+
+        assertNull(confirmationCodeService.redeem(code, ConfirmationCodePurpose.RESET_PASSWORD));
+    }
+
+    @Test
+    public void redeemAfterConfirmation() {
+        String code = confirmationCodeService.issue(user, ConfirmationCodePurpose.CONFIRM_EMAIL);
+        user.setEnabled(true);
+
+        assertNull(confirmationCodeService.redeem(code, ConfirmationCodePurpose.CONFIRM_EMAIL));
+    }
+
+    @Test
+    public void redeemAfterPasswordChange() {
+        String code = confirmationCodeService.issue(user, ConfirmationCodePurpose.RESET_PASSWORD);
+        user.setPassword("$2a$10$anotherhash");
+
+        assertNull(confirmationCodeService.redeem(code, ConfirmationCodePurpose.RESET_PASSWORD));
+    }
+
+    @Test
+    public void redeemExpiredCode() {
+        ReflectionTestUtils.setField(confirmationCodeService, "codeTtlMillis", -1000L);
+        String code = confirmationCodeService.issue(user, ConfirmationCodePurpose.RESET_PASSWORD);
+
+        assertNull(confirmationCodeService.redeem(code, ConfirmationCodePurpose.RESET_PASSWORD));
+        verify(userRepository, never()).findById(anyLong());
+    }
+
+    @Test
+    public void redeemTamperedCode() {
+        String code = confirmationCodeService.issue(user, ConfirmationCodePurpose.RESET_PASSWORD);
+        String[] parts = code.split("\\.");
+        String tampered = parts[0] + "." + Long.toString(Long.parseLong(parts[1], 36) + 3600, 36) + "." + parts[2];
+
+        assertNull(confirmationCodeService.redeem(tampered, ConfirmationCodePurpose.RESET_PASSWORD));
+        assertNull(confirmationCodeService.redeem("not-a-code", ConfirmationCodePurpose.RESET_PASSWORD));
+    }
+}
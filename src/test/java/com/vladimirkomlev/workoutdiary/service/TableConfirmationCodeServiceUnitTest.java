@@ -0,0 +1,95 @@
+package com.vladimirkomlev.workoutdiary.service;
+
+import com.vladimirkomlev.workoutdiary.model.ConfirmationCode;
+import com.vladimirkomlev.workoutdiary.model.ConfirmationCodePurpose;
+import com.vladimirkomlev.workoutdiary.model.User;
+import com.vladimirkomlev.workoutdiary.repository.ConfirmationCodeRepository;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.junit.Assert.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+public class TableConfirmationCodeServiceUnitTest {
+    private ConfirmationCodeRepository confirmationCodeRepository = mock(ConfirmationCodeRepository.class);
+    private TableConfirmationCodeService confirmationCodeService = new TableConfirmationCodeService(confirmationCodeRepository);
+    private User user = new User();
+
+    @Before
+    public void setUp() {
+        ReflectionTestUtils.setField(confirmationCodeService, "codeTtlMillis", 86400000L);
+        ReflectionTestUtils.setField(confirmationCodeService, "resendWindowMillis", 60000L);
+        user.setId(25L);
+        user.setEmail("test@myemail.com");
+    }
+
+    @Test
+    public void issue() {
+        ConfirmationCode mockConfirmationCode = new ConfirmationCode(user, ConfirmationCodePurpose.RESET_PASSWORD, LocalDateTime.now().plusDays(1));
+        when(confirmationCodeRepository.findByUserIdAndPurpose(25L, ConfirmationCodePurpose.RESET_PASSWORD))
+                .thenReturn(mockConfirmationCode);
+        when(confirmationCodeRepository.markSent(mockConfirmationCode.getId(), 60000L)).thenReturn(1);
+
+        String code = confirmationCodeService.issue(user, ConfirmationCodePurpose.RESET_PASSWORD);
+
+        assertThat(code, equalTo(mockConfirmationCode.getCode()));
+        verify(confirmationCodeRepository, times(1))
+                .insertIfAbsent(anyString(), eq(25L), eq(ConfirmationCodePurpose.RESET_PASSWORD.name()), eq(86400000L));
+    }
+
+    @Test
+    public void issueRecentlySentByAnotherNode() {
+        ConfirmationCode mockConfirmationCode = new ConfirmationCode(user, ConfirmationCodePurpose.RESET_PASSWORD, LocalDateTime.now().plusDays(1));
+        when(confirmationCodeRepository.findByUserIdAndPurpose(25L, ConfirmationCodePurpose.RESET_PASSWORD))
+                .thenReturn(mockConfirmationCode);
+        when(confirmationCodeRepository.markSent(mockConfirmationCode.getId(), 60000L)).thenReturn(0);
+
+        assertNull(confirmationCodeService.issue(user, ConfirmationCodePurpose.RESET_PASSWORD));
+    }
+
+    @Test
+    public void issueRetriesOnCodeCollision() {
+        when(confirmationCodeRepository.findByUserIdAndPurpose(25L, ConfirmationCodePurpose.RESET_PASSWORD))
+                .thenReturn(null)
+                .thenReturn(new ConfirmationCode(user, ConfirmationCodePurpose.RESET_PASSWORD, LocalDateTime.now().plusDays(1)));
+        when(confirmationCodeRepository.markSent(anyLong(), anyLong())).thenReturn(1);
+
+        assertNotNull(confirmationCodeService.issue(user, ConfirmationCodePurpose.RESET_PASSWORD));
+        verify(confirmationCodeRepository, times(1)).deleteExpired(25L, ConfirmationCodePurpose.RESET_PASSWORD);
+        verify(confirmationCodeRepository, times(2)).insertIfAbsent(anyString(), anyLong(), anyString(), anyLong());
+    }
+
+    @Test
+    public void redeem() {
+        ConfirmationCode mockConfirmationCode = new ConfirmationCode();
+        mockConfirmationCode.setUser(user);
+        when(confirmationCodeRepository.findActiveByCode("code", ConfirmationCodePurpose.CONFIRM_EMAIL)).thenReturn(mockConfirmationCode);
+
+        User redeemedUser = confirmationCodeService.redeem("code", ConfirmationCodePurpose.CONFIRM_EMAIL);
+
+        assertThat(redeemedUser, equalTo(user));
+        verify(confirmationCodeRepository, times(1)).delete(mockConfirmationCode);
+    }
+
+    @Test
+    public void redeemWithCodeForAnotherPurpose() {
+        ConfirmationCode mockConfirmationCode = new ConfirmationCode();
+        mockConfirmationCode.setUser(user);
+        when(confirmationCodeRepository.findActiveByCode("code", ConfirmationCodePurpose.CONFIRM_EMAIL)).thenReturn(mockConfirmationCode);
+
+        assertNull(confirmationCodeService.redeem("code", ConfirmationCodePurpose.RESET_PASSWORD));
+        verify(confirmationCodeRepository, never()).delete(any(ConfirmationCode.class));
+    }
+
+    @Test
+    public void redeemWithUnknownCode() {
+        assertNull(confirmationCodeService.redeem("code", ConfirmationCodePurpose.CONFIRM_EMAIL));
+        verify(confirmationCodeRepository, never()).delete(any(ConfirmationCode.class));
+    }
+}
@@ -1,6 +1,11 @@
 package com.vladimirkomlev.workoutdiary.service;
 
 import com.vladimirkomlev.workoutdiary.model.User;
+import com.vladimirkomlev.workoutdiary.model.Workout;
+import com.vladimirkomlev.workoutdiary.repository.OutboxEmailRepository;
+import com.vladimirkomlev.workoutdiary.security.JwtUserDetailsService;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -9,6 +14,8 @@ import org.springframework.security.test.context.support.WithUserDetails;
 import org.springframework.test.context.jdbc.Sql;
 import org.springframework.test.context.junit4.SpringRunner;
 
+import javax.persistence.EntityManagerFactory;
+
 import static org.hamcrest.CoreMatchers.equalTo;
 import static org.junit.Assert.*;
 import static org.springframework.test.context.jdbc.Sql.ExecutionPhase.AFTER_TEST_METHOD;
@@ -22,6 +29,15 @@ public class UserServiceIntegrationTest {
     @Autowired
     private UserService userService;
 
+    @Autowired
+    private JwtUserDetailsService jwtUserDetailsService;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private OutboxEmailRepository outboxEmailRepository;
+
     @Test
     public void register() {
         User user = new User();
@@ -35,6 +51,8 @@ public class UserServiceIntegrationTest {
         assertNotNull(registeredUser);
         assertNotNull(registeredUser.getId());
         assertThat(registeredUser, equalTo(user));
+        assertThat(outboxEmailRepository.count(), equalTo(1L));
+        assertThat(outboxEmailRepository.findAll().get(0).getRecipient(), equalTo("jenny@myemail.com"));
     }
 
     @Test
@@ -68,4 +86,26 @@ public class UserServiceIntegrationTest {
         assertThat(user.getLastName(), equalTo("Doe"));
         assertThat(user.getAge(), equalTo(23));
     }
-}
\ No newline at end of file
+
+    @Test
+    @WithUserDetails("test@myemail.com")
+    public void getCurrentUserId() {
+        Long userId = userService.getCurrentUserId();
+
+        assertThat(userId, equalTo(25L));
+    }
+
+    @Test
+    @Sql(value = {"/create-user-before.sql", "/create-workout-before.sql"}, executionPhase = BEFORE_TEST_METHOD)
+    @Sql(value = {"/create-workout-after.sql", "/create-user-after.sql"}, executionPhase = AFTER_TEST_METHOD)
+    public void loadUserByUsernameDoesNotLoadWorkouts() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        jwtUserDetailsService.loadUserByUsername("test@myemail.com");
+
+        assertThat(statistics.getEntityStatistics(Workout.class.getName()).getLoadCount(), equalTo(0L));
+        assertThat(statistics.getCollectionLoadCount(), equalTo(0L));
+        assertThat(statistics.getPrepareStatementCount(), equalTo(1L));
+    }
+}
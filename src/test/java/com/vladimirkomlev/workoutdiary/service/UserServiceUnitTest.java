@@ -2,14 +2,17 @@ package com.vladimirkomlev.workoutdiary.service;
 
 import com.vladimirkomlev.workoutdiary.dto.ResetPasswordRequestDto;
 import com.vladimirkomlev.workoutdiary.dto.SetupPasswordRequestDto;
+import com.vladimirkomlev.workoutdiary.exception.NotFoundException;
+import com.vladimirkomlev.workoutdiary.infra.email.EmailCoalescer;
 import com.vladimirkomlev.workoutdiary.infra.email.EmailMessage;
-import com.vladimirkomlev.workoutdiary.infra.messaging.MessageQueues;
-import com.vladimirkomlev.workoutdiary.model.ConfirmationCode;
+import com.vladimirkomlev.workoutdiary.infra.email.EmailOutbox;
+import com.vladimirkomlev.workoutdiary.model.ConfirmationCodePurpose;
 import com.vladimirkomlev.workoutdiary.model.User;
-import com.vladimirkomlev.workoutdiary.repository.ConfirmationCodeRepository;
 import com.vladimirkomlev.workoutdiary.repository.UserRepository;
 import org.junit.Test;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import static org.hamcrest.CoreMatchers.equalTo;
 import static org.junit.Assert.*;
@@ -18,14 +21,16 @@ import static org.mockito.Mockito.*;
 
 public class UserServiceUnitTest {
     private UserRepository userRepository = mock(UserRepository.class);
-    private BCryptPasswordEncoder passwordEncoder = mock(BCryptPasswordEncoder.class);
-    private ConfirmationCodeRepository confirmationCodeRepository = mock(ConfirmationCodeRepository.class);
-    private MessageQueues messageQueues = mock(MessageQueues.class);
+    private PasswordEncoder passwordEncoder = mock(PasswordEncoder.class);
+    private ConfirmationCodeService confirmationCodeService = mock(ConfirmationCodeService.class);
+    private EmailOutbox emailOutbox = mock(EmailOutbox.class);
     private UserServiceImpl userService = new UserServiceImpl(
             userRepository,
             passwordEncoder,
-            messageQueues,
-            confirmationCodeRepository
+            emailOutbox,
+            confirmationCodeService,
+            new TransactionTemplate(mock(PlatformTransactionManager.class)),
+            new EmailCoalescer(60000)
     );
 
     @Test
@@ -52,13 +57,16 @@ public class UserServiceUnitTest {
     @Test
     public void verifyEmail() {
         String email = "test@myemail.com";
-        when(userRepository.findByEmailIgnoreCase(email)).thenReturn(new User());
+        User mockUser = new User();
+        mockUser.setId(25L);
+        mockUser.setEmail(email);
+        when(userRepository.findByEmailIgnoreCase(email)).thenReturn(mockUser);
+        when(confirmationCodeService.issue(mockUser, ConfirmationCodePurpose.CONFIRM_EMAIL)).thenReturn("123456");
         User user = new User();
         user.setEmail(email);
         userService.verifyEmail(user);
 
-        verify(confirmationCodeRepository, times(1)).save(any(ConfirmationCode.class));
-        verify(messageQueues, times(1)).enqueueEmail(any(EmailMessage.class));
+        verify(emailOutbox, times(1)).add(argThat(message -> message.getMessage().endsWith("123456")));
     }
 
     @Test
@@ -67,30 +75,64 @@ public class UserServiceUnitTest {
         String email = "test@myemail.com";
         User mockUser = new User();
         mockUser.setEmail(email);
-        ConfirmationCode mockConfirmationCode = new ConfirmationCode();
-        mockConfirmationCode.setUser(mockUser);
-        when(confirmationCodeRepository.findByCode(code)).thenReturn(mockConfirmationCode);
-        when(userRepository.findByEmailIgnoreCase(anyString())).thenReturn(mockUser);
+        when(confirmationCodeService.redeem(code, ConfirmationCodePurpose.CONFIRM_EMAIL)).thenReturn(mockUser);
         when(userRepository.save(any(User.class))).thenReturn(mockUser);
         User user = userService.confirm(code);
 
         assertThat(user.getEmail(), equalTo(email));
         assertTrue(user.isEnabled());
-        verify(confirmationCodeRepository, times(1)).delete(any(ConfirmationCode.class));
+    }
+
+    @Test(expected = NotFoundException.class)
+    public void confirmWithInvalidCode() {
+        userService.confirm("code");
     }
 
     @Test
     public void resetPassword() {
         String email = "test@myemail.com";
         User mockUser = new User();
+        mockUser.setId(25L);
+        mockUser.setEmail(email);
+        when(userRepository.findByEmailIgnoreCase(email)).thenReturn(mockUser);
+        when(confirmationCodeService.issue(mockUser, ConfirmationCodePurpose.RESET_PASSWORD)).thenReturn("123456");
+        ResetPasswordRequestDto request = new ResetPasswordRequestDto();
+        request.setEmail(email);
+        userService.resetPassword(request);
+
+        verify(emailOutbox, times(1)).add(any(EmailMessage.class));
+    }
+
+    @Test
+    public void resetPasswordTwiceWithinWindow() {
+        String email = "test@myemail.com";
+        User mockUser = new User();
+        mockUser.setId(25L);
         mockUser.setEmail(email);
         when(userRepository.findByEmailIgnoreCase(email)).thenReturn(mockUser);
+        when(confirmationCodeService.issue(mockUser, ConfirmationCodePurpose.RESET_PASSWORD)).thenReturn("123456");
         ResetPasswordRequestDto request = new ResetPasswordRequestDto();
         request.setEmail(email);
         userService.resetPassword(request);
+        userService.resetPassword(request);
 
-        verify(confirmationCodeRepository, times(1)).save(any(ConfirmationCode.class));
-        verify(messageQueues, times(1)).enqueueEmail(any(EmailMessage.class));
+        verify(confirmationCodeService, times(1)).issue(mockUser, ConfirmationCodePurpose.RESET_PASSWORD);
+        verify(emailOutbox, times(1)).add(any(EmailMessage.class));
+    }
+
+    @Test
+    public void resetPasswordRecentlySentByAnotherNode() {
+        String email = "test@myemail.com";
+        User mockUser = new User();
+        mockUser.setId(25L);
+        mockUser.setEmail(email);
+        when(userRepository.findByEmailIgnoreCase(email)).thenReturn(mockUser);
+        when(confirmationCodeService.issue(mockUser, ConfirmationCodePurpose.RESET_PASSWORD)).thenReturn(null);
+        ResetPasswordRequestDto request = new ResetPasswordRequestDto();
+        request.setEmail(email);
+        userService.resetPassword(request);
+
+        verify(emailOutbox, never()).add(any(EmailMessage.class));
     }
 
     @Test
@@ -100,18 +142,16 @@ public class UserServiceUnitTest {
         String email = "test@myemail.com";
         User mockUser = new User();
         mockUser.setEmail(email);
-        ConfirmationCode mockConfirmationCode = new ConfirmationCode();
-        mockConfirmationCode.setUser(mockUser);
-        when(confirmationCodeRepository.findByCode(code)).thenReturn(mockConfirmationCode);
-        when(userRepository.findByEmailIgnoreCase(email)).thenReturn(mockUser);
+        when(confirmationCodeService.redeem(code, ConfirmationCodePurpose.RESET_PASSWORD)).thenReturn(mockUser);
+        when(passwordEncoder.encode(password)).thenReturn("hash");
         SetupPasswordRequestDto request = new SetupPasswordRequestDto();
         request.setCode(code);
         request.setPassword(password);
         userService.setupPassword(request);
 
         verify(passwordEncoder, times(1)).encode(password);
-        verify(confirmationCodeRepository, times(1)).delete(any(ConfirmationCode.class));
-        verify(userRepository, times(1)).save(any(User.class));
+        verify(userRepository, times(1)).save(mockUser);
+        assertThat(mockUser.getPassword(), equalTo("hash"));
     }
 
     @Test
@@ -0,0 +1,36 @@
+package com.vladimirkomlev.workoutdiary.service;
+
+import com.vladimirkomlev.workoutdiary.dto.WorkoutResponseDto;
+import com.vladimirkomlev.workoutdiary.dto.WorkoutSummaryResponseDto;
+import org.junit.Test;
+import org.springframework.data.domain.SliceImpl;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+public class WorkoutCacheUnitTest {
+    private static final LocalDate DATE = LocalDate.parse("2018-07-01");
+
+    @Test
+    public void weighCountsElementsAndText() {
+        WorkoutResponseDto workout = new WorkoutResponseDto(1L, "Running", DATE, "Running 5 miles");
+
+        assertThat(WorkoutCache.weigh(new SliceImpl<>(Collections.emptyList())), equalTo(0));
+        assertThat(WorkoutCache.weigh(new SliceImpl<>(Arrays.asList(workout, workout))), equalTo(2 * (64 + 7 + 15)));
+    }
+
+    @Test
+    public void weighSummariesByPreview() {
+        String description = String.join("", Collections.nCopies(4000, "x"));
+        WorkoutResponseDto workout = new WorkoutResponseDto(1L, "Running", DATE, description);
+        WorkoutSummaryResponseDto summary = new WorkoutSummaryResponseDto(1L, "Running", DATE, description.substring(0, 100));
+
+        assertTrue(WorkoutCache.weigh(new SliceImpl<>(Collections.singletonList(summary)))
+                < WorkoutCache.weigh(new SliceImpl<>(Collections.singletonList(workout))));
+    }
+}
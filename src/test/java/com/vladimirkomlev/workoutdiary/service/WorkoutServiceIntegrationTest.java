@@ -1,19 +1,26 @@
 package com.vladimirkomlev.workoutdiary.service;
 
-import com.vladimirkomlev.workoutdiary.dto.WorkoutCreateUpdateRequestDto;
+import com.vladimirkomlev.workoutdiary.dto.*;
 import com.vladimirkomlev.workoutdiary.exception.NotFoundException;
 import com.vladimirkomlev.workoutdiary.model.Workout;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.Before;
 import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.ExpectedException;
 import org.junit.runner.RunWith;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Slice;
 import org.springframework.security.test.context.support.WithUserDetails;
 import org.springframework.test.context.jdbc.Sql;
 import org.springframework.test.context.junit4.SpringRunner;
 
+import javax.persistence.EntityManagerFactory;
 import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 
 import static org.hamcrest.Matchers.*;
@@ -32,12 +39,23 @@ public class WorkoutServiceIntegrationTest {
     @Autowired
     private WorkoutService workoutService;
 
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private WorkoutCache workoutCache;
+
     @Rule
     public ExpectedException exceptionRule = ExpectedException.none();
 
+    @Before
+    public void setUp() {
+        workoutCache.evict(25L);
+    }
+
     @Test
     public void getAllWorkoutsByUserId() {
-        List<Workout> workouts = workoutService.getAllWorkoutsByUserId(25L);
+        List<WorkoutResponseDto> workouts = workoutService.getAllWorkoutsByUserId(25L, workoutService.getWorkoutsVersion(25L), new WorkoutListRequestDto()).getContent();
 
         assertThat(workouts.size(), equalTo(2));
         assertThat(workouts.get(0).getDate(), equalTo(LocalDate.parse("2018-08-01")));
@@ -46,9 +64,173 @@ public class WorkoutServiceIntegrationTest {
         assertThat(workouts.get(1).getDescription(), equalTo("Cycling 30 miles"));
     }
 
+    @Test
+    public void getWorkoutsPage() {
+        WorkoutListRequestDto request = new WorkoutListRequestDto();
+        request.setLimit(1);
+
+        Slice<WorkoutResponseDto> firstPage = workoutService.getAllWorkoutsByUserId(25L, workoutService.getWorkoutsVersion(25L), request);
+
+        assertThat(firstPage.getNumberOfElements(), equalTo(1));
+        assertThat(firstPage.getContent().get(0).getDate(), equalTo(LocalDate.parse("2018-08-01")));
+        assertThat(firstPage.hasNext(), equalTo(true));
+
+        request.setAfter(WorkoutCursor.of(firstPage.getContent().get(0)).encode());
+        Slice<WorkoutResponseDto> secondPage = workoutService.getAllWorkoutsByUserId(25L, workoutService.getWorkoutsVersion(25L), request);
+
+        assertThat(secondPage.getNumberOfElements(), equalTo(1));
+        assertThat(secondPage.getContent().get(0).getDate(), equalTo(LocalDate.parse("2018-07-01")));
+        assertThat(secondPage.hasNext(), equalTo(false));
+    }
+
+    @Test
+    public void getAllWorkoutsByUserIdInDateRange() {
+        WorkoutListRequestDto request = new WorkoutListRequestDto();
+        request.setFrom(LocalDate.parse("2018-07-01"));
+        request.setTo(LocalDate.parse("2018-07-31"));
+
+        List<WorkoutResponseDto> workouts = workoutService.getAllWorkoutsByUserId(25L, workoutService.getWorkoutsVersion(25L), request).getContent();
+
+        assertThat(workouts.size(), equalTo(1));
+        assertThat(workouts.get(0).getDate(), equalTo(LocalDate.parse("2018-07-01")));
+    }
+
+    @Test
+    public void getAllWorkoutsByUserIdStatementCount() {
+        Statistics statistics = statistics();
+
+        workoutService.getAllWorkoutsByUserId(25L, workoutService.getWorkoutsVersion(25L), new WorkoutListRequestDto());
+
+        assertThat(statistics.getPrepareStatementCount(), equalTo(2L));
+    }
+
+    @Test
+    public void getAllWorkoutsByUserIdFromCache() {
+        workoutService.getAllWorkoutsByUserId(25L, workoutService.getWorkoutsVersion(25L), new WorkoutListRequestDto());
+        Statistics statistics = statistics();
+
+        List<WorkoutResponseDto> workouts = workoutService.getAllWorkoutsByUserId(25L, workoutService.getWorkoutsVersion(25L), new WorkoutListRequestDto()).getContent();
+
+        assertThat(workouts.size(), equalTo(2));
+        assertThat(statistics.getPrepareStatementCount(), equalTo(1L));
+    }
+
+    @Test
+    public void getAllWorkoutsByUserIdAfterCreate() {
+        workoutService.getAllWorkoutsByUserId(25L, workoutService.getWorkoutsVersion(25L), new WorkoutListRequestDto());
+        workoutService.create(new WorkoutCreateUpdateRequestDto(LocalDate.parse("2018-09-01"), "Swimming 1 mile", "Swimming"), 25L);
+
+        List<WorkoutResponseDto> workouts = workoutService.getAllWorkoutsByUserId(25L, workoutService.getWorkoutsVersion(25L), new WorkoutListRequestDto()).getContent();
+
+        assertThat(workouts.size(), equalTo(3));
+    }
+
+    @Test
+    public void getWorkoutsVersionAfterCreate() {
+        long version = workoutService.getWorkoutsVersion(25L);
+
+        workoutService.create(new WorkoutCreateUpdateRequestDto(LocalDate.parse("2018-09-01"), "Swimming 1 mile", "Swimming"), 25L);
+
+        assertThat(workoutService.getWorkoutsVersion(25L), equalTo(version + 1));
+    }
+
+    @Test
+    public void getWorkoutVersionAfterUpdate() {
+        long version = workoutService.getWorkoutVersion(25L, 10L);
+
+        workoutService.update(new WorkoutCreateUpdateRequestDto(LocalDate.parse("2018-07-01"), "Cycling 40 miles", "Cycling"), 25L, 10L);
+
+        assertThat(workoutService.getWorkoutVersion(25L, 10L), equalTo(version + 1));
+    }
+
+    @Test
+    public void getChanges() {
+        WorkoutChangesResponseDto fullSync = workoutService.getChanges(25L, null);
+
+        assertThat(fullSync.getChanged().size(), equalTo(2));
+        assertThat(fullSync.getDeleted(), empty());
+
+        Workout created = workoutService.create(new WorkoutCreateUpdateRequestDto(LocalDate.parse("2018-09-01"), "Swimming 1 mile", "Swimming"), 25L);
+        workoutService.update(new WorkoutCreateUpdateRequestDto(LocalDate.parse("2018-07-01"), "Cycling 40 miles", "Cycling"), 25L, 10L);
+        workoutService.delete(25L, 11L);
+        WorkoutChangesResponseDto delta = workoutService.getChanges(25L, fullSync.getCursor());
+
+        assertThat(delta.getChanged().size(), equalTo(2));
+        assertThat(delta.getChanged().get(0).getId(), equalTo(created.getId()));
+        assertThat(delta.getChanged().get(1).getDescription(), equalTo("Cycling 40 miles"));
+        assertThat(delta.getDeleted(), contains(11L));
+        assertThat(delta.getCursor(), equalTo(fullSync.getCursor() + 3));
+
+        WorkoutChangesResponseDto upToDate = workoutService.getChanges(25L, delta.getCursor());
+
+        assertThat(upToDate.getChanged(), empty());
+        assertThat(upToDate.getDeleted(), empty());
+        assertThat(upToDate.getCursor(), equalTo(delta.getCursor()));
+    }
+
+    @Test
+    public void bulk() {
+        WorkoutCreateUpdateRequestDto workout = new WorkoutCreateUpdateRequestDto(LocalDate.parse("2018-09-01"), "Swimming 1 mile", "Swimming");
+
+        List<WorkoutBulkResultDto> results = workoutService.bulk(25L, Arrays.asList(
+                new WorkoutBulkOperationDto(WorkoutBulkAction.CREATE, null, workout),
+                new WorkoutBulkOperationDto(WorkoutBulkAction.UPDATE, 10L, workout),
+                new WorkoutBulkOperationDto(WorkoutBulkAction.DELETE, 11L, null),
+                new WorkoutBulkOperationDto(WorkoutBulkAction.DELETE, 11L, null)
+        ));
+
+        assertThat(results.get(0).getStatus(), equalTo(WorkoutBulkStatus.CREATED));
+        assertThat(results.get(0).getId(), greaterThan(0L));
+        assertThat(results.get(1).getStatus(), equalTo(WorkoutBulkStatus.UPDATED));
+        assertThat(results.get(2).getStatus(), equalTo(WorkoutBulkStatus.DELETED));
+        assertThat(results.get(3).getStatus(), equalTo(WorkoutBulkStatus.NOT_FOUND));
+        assertThat(workoutService.get(25L, 10L, workoutService.getWorkoutVersion(25L, 10L)).getDescription(), equalTo("Swimming 1 mile"));
+        assertThat(workoutService.getChanges(25L, 0L).getDeleted(), contains(11L));
+        assertThat(workoutService.getAllWorkoutsByUserId(25L, workoutService.getWorkoutsVersion(25L), new WorkoutListRequestDto()).getNumberOfElements(), equalTo(2));
+    }
+
+    @Test
+    public void bulkUpdateStatementCount() {
+        WorkoutCreateUpdateRequestDto workout = new WorkoutCreateUpdateRequestDto(LocalDate.parse("2018-09-01"), "Swimming 1 mile", "Swimming");
+        Statistics statistics = statistics();
+
+        workoutService.bulk(25L, Arrays.asList(
+                new WorkoutBulkOperationDto(WorkoutBulkAction.UPDATE, 10L, workout),
+                new WorkoutBulkOperationDto(WorkoutBulkAction.UPDATE, 11L, workout)
+        ));
+
+        assertThat(statistics.getPrepareStatementCount(), equalTo(3L));
+    }
+
+    @Test
+    public void getWorkoutSummaries() {
+        WorkoutListRequestDto request = new WorkoutListRequestDto();
+        request.setView("summary");
+
+        Slice<WorkoutSummaryResponseDto> workouts = workoutService.getWorkoutSummariesByUserId(25L, workoutService.getWorkoutsVersion(25L), request);
+
+        assertThat(workouts.getNumberOfElements(), equalTo(2));
+        assertThat(workouts.getContent().get(0).getPreview(), equalTo("Running 5 miles"));
+        assertThat(workouts.getContent().get(1).getPreview(), equalTo("Cycling 30 miles"));
+    }
+
+    @Test
+    public void getWorkoutSummariesAfterUpdate() {
+        WorkoutListRequestDto request = new WorkoutListRequestDto();
+        request.setView("summary");
+        String description = String.join("", Collections.nCopies(50, "Cycling "));
+
+        workoutService.update(new WorkoutCreateUpdateRequestDto(LocalDate.parse("2018-07-01"), description, "Cycling"), 25L, 10L);
+        String preview = workoutService.getWorkoutSummariesByUserId(25L, workoutService.getWorkoutsVersion(25L), request).getContent().get(1).getPreview();
+
+        assertThat(preview.length(), equalTo(100));
+        assertThat(preview, equalTo(description.substring(0, 99) + "\u2026"));
+        assertThat(workoutService.get(25L, 10L, workoutService.getWorkoutVersion(25L, 10L)).getDescription(), equalTo(description));
+    }
+
     @Test
     public void getWorkout() {
-        Workout workout = workoutService.get(25L, 10L);
+        WorkoutResponseDto workout = workoutService.get(25L, 10L, workoutService.getWorkoutVersion(25L, 10L));
 
         assertNotNull(workout);
         assertThat(workout.getId(), greaterThan(0L));
@@ -56,6 +238,16 @@ public class WorkoutServiceIntegrationTest {
         assertThat(workout.getDescription(), equalTo("Cycling 30 miles"));
     }
 
+    @Test
+    public void getWorkoutStatementCount() {
+        long workoutVersion = workoutService.getWorkoutVersion(25L, 10L);
+        Statistics statistics = statistics();
+
+        workoutService.get(25L, 10L, workoutVersion);
+
+        assertThat(statistics.getPrepareStatementCount(), equalTo(1L));
+    }
+
     @Test
     public void createWorkout() {
         LocalDate date = LocalDate.parse("2014-05-22");
@@ -78,13 +270,62 @@ public class WorkoutServiceIntegrationTest {
         String description = "Playing football";
         WorkoutCreateUpdateRequestDto request = new WorkoutCreateUpdateRequestDto(date, description, title);
 
-        Workout workout = workoutService.update(request, 25L, 10L);
+        WorkoutResponseDto workout = workoutService.update(request, 25L, 10L);
 
         assertThat(workout.getDate(), equalTo(date));
         assertThat(workout.getDescription(), equalTo(description));
         assertThat(workout.getId(), equalTo(10L));
     }
 
+    @Test
+    public void updateWorkoutStatementCount() {
+        WorkoutCreateUpdateRequestDto request = new WorkoutCreateUpdateRequestDto(LocalDate.parse("2014-05-22"), "Playing football", "football");
+        Statistics statistics = statistics();
+
+        workoutService.update(request, 25L, 10L);
+
+        assertThat(statistics.getPrepareStatementCount(), equalTo(2L));
+    }
+
+    @Test
+    public void updateMissingWorkout() {
+        WorkoutCreateUpdateRequestDto request = new WorkoutCreateUpdateRequestDto(LocalDate.parse("2014-05-22"), "Playing football", "football");
+
+        exceptionRule.expect(NotFoundException.class);
+        exceptionRule.expectMessage("Workout not found");
+        workoutService.update(request, 25L, 1120L);
+    }
+
+    @Test
+    public void patchWorkout() {
+        Workout workout = workoutService.patch(new WorkoutPatchRequestDto(LocalDate.parse("2018-07-02"), null, null), 25L, 10L);
+
+        assertThat(workout.getDate(), equalTo(LocalDate.parse("2018-07-02")));
+        assertThat(workout.getTitle(), equalTo("Cycling"));
+        assertThat(workout.getDescription(), equalTo("Cycling 30 miles"));
+        assertThat(workoutService.get(25L, 10L, workoutService.getWorkoutVersion(25L, 10L)).getDate(), equalTo(LocalDate.parse("2018-07-02")));
+        assertThat(workoutService.getChanges(25L, 0L).getChanged().get(0).getId(), equalTo(10L));
+    }
+
+    @Test
+    public void patchWorkoutStatementCount() {
+        Statistics statistics = statistics();
+
+        workoutService.patch(new WorkoutPatchRequestDto(LocalDate.parse("2018-07-02"), null, null), 25L, 10L);
+
+        assertThat(statistics.getPrepareStatementCount(), equalTo(3L));
+        assertThat(statistics.getEntityUpdateCount(), equalTo(1L));
+    }
+
+    @Test
+    public void deleteStatementCount() {
+        Statistics statistics = statistics();
+
+        workoutService.delete(25L, 10L);
+
+        assertThat(statistics.getPrepareStatementCount(), equalTo(3L));
+    }
+
     @Test
     public void delete() {
         workoutService.delete(25L, 10L);
@@ -93,4 +334,10 @@ public class WorkoutServiceIntegrationTest {
         exceptionRule.expectMessage("Workout not found");
         workoutService.delete(25L, 10L);
     }
-}
\ No newline at end of file
+
+    private Statistics statistics() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        return statistics;
+    }
+}
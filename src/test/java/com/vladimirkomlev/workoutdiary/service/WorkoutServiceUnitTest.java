@@ -1,16 +1,27 @@
 package com.vladimirkomlev.workoutdiary.service;
 
-import com.vladimirkomlev.workoutdiary.dto.WorkoutCreateUpdateRequestDto;
+import com.vladimirkomlev.workoutdiary.dto.*;
 import com.vladimirkomlev.workoutdiary.exception.NotFoundException;
+import com.vladimirkomlev.workoutdiary.infra.messaging.CacheInvalidationPublisher;
 import com.vladimirkomlev.workoutdiary.model.User;
 import com.vladimirkomlev.workoutdiary.model.Workout;
+import com.vladimirkomlev.workoutdiary.model.WorkoutTombstone;
+import com.vladimirkomlev.workoutdiary.repository.UserRepository;
 import com.vladimirkomlev.workoutdiary.repository.WorkoutRepository;
+import com.vladimirkomlev.workoutdiary.repository.WorkoutTombstoneRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.Before;
 import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.ExpectedException;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.security.access.AccessDeniedException;
+import org.springframework.test.util.ReflectionTestUtils;
 
+import javax.validation.Validation;
 import java.time.LocalDate;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 
@@ -18,16 +29,35 @@ import static java.util.Optional.*;
 import static org.hamcrest.CoreMatchers.equalTo;
 import static org.junit.Assert.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 public class WorkoutServiceUnitTest {
     private WorkoutRepository workoutRepository = mock(WorkoutRepository.class);
+    private WorkoutTombstoneRepository workoutTombstoneRepository = mock(WorkoutTombstoneRepository.class);
+    private UserRepository userRepository = mock(UserRepository.class);
     private UserService userService = mock(UserService.class);
-    private WorkoutServiceImpl workoutService = new WorkoutServiceImpl(workoutRepository, userService);
+    private CacheInvalidationPublisher cacheInvalidationPublisher = mock(CacheInvalidationPublisher.class);
+    private WorkoutCache workoutCache = new WorkoutCache(100, 100000, 60000, new SimpleMeterRegistry(), cacheInvalidationPublisher);
+    private WorkoutServiceImpl workoutService = new WorkoutServiceImpl(
+            workoutRepository,
+            workoutTombstoneRepository,
+            userRepository,
+            userService,
+            workoutCache,
+            Validation.buildDefaultValidatorFactory().getValidator()
+    );
 
     @Rule
     public ExpectedException exceptionRule = ExpectedException.none();
 
+    @Before
+    public void setUp() {
+        ReflectionTestUtils.setField(workoutService, "bulkMaxOperations", 2);
+    }
+
     @Test
     public void createWorkout() {
         LocalDate date = LocalDate.parse("2014-05-22");
@@ -36,7 +66,8 @@ public class WorkoutServiceUnitTest {
         long currentUserId = 200L;
         User mockCurrentUser = new User();
         mockCurrentUser.setId(currentUserId);
-        when(userService.getCurrentUser()).thenReturn(mockCurrentUser);
+        when(userService.getCurrentUserId()).thenReturn(mockCurrentUser.getId());
+        when(userRepository.getOne(currentUserId)).thenReturn(mockCurrentUser);
         Workout mockWorkout = new Workout(0, date, title, description, mockCurrentUser);
         when(workoutRepository.save(any(Workout.class))).thenReturn(mockWorkout);
         WorkoutCreateUpdateRequestDto request = new WorkoutCreateUpdateRequestDto(date, description, title);
@@ -46,8 +77,11 @@ public class WorkoutServiceUnitTest {
         assertThat(workout.getDescription(), equalTo(description));
         assertThat(workout.getUser(), equalTo(mockCurrentUser));
         assertThat(workout.getTitle(), equalTo(title));
-        verify(userService, times(1)).getCurrentUser();
+        verify(userService, times(1)).getCurrentUserId();
+        verify(userService, never()).getCurrentUser();
+        verify(userRepository, times(1)).getOne(currentUserId);
         verify(workoutRepository, times(1)).save(any(Workout.class));
+        verify(userRepository, times(1)).nextWorkoutsVersion(currentUserId);
     }
 
     @Test
@@ -58,7 +92,7 @@ public class WorkoutServiceUnitTest {
         long currentUserId = 300L;
         User mockCurrentUser = new User();
         mockCurrentUser.setId(currentUserId);
-        when(userService.getCurrentUser()).thenReturn(mockCurrentUser);
+        when(userService.getCurrentUserId()).thenReturn(mockCurrentUser.getId());
         Workout mockWorkout = new Workout(0, date, title, description, mockCurrentUser);
         when(workoutRepository.save(any(Workout.class))).thenReturn(mockWorkout);
         WorkoutCreateUpdateRequestDto request = new WorkoutCreateUpdateRequestDto(date, description, title);
@@ -77,36 +111,89 @@ public class WorkoutServiceUnitTest {
         long workoutId = 289L;
         User mockCurrentUser = new User();
         mockCurrentUser.setId(currentUserId);
-        when(userService.getCurrentUser()).thenReturn(mockCurrentUser);
-        Workout mockWorkout = new Workout(workoutId, date, title, description, mockCurrentUser);
-        when(workoutRepository.findById(workoutId)).thenReturn(of(mockWorkout));
-        Workout workout = workoutService.get(currentUserId, workoutId);
+        when(userService.getCurrentUserId()).thenReturn(mockCurrentUser.getId());
+        WorkoutResponseDto mockWorkout = new WorkoutResponseDto(workoutId, title, date, description);
+        when(workoutRepository.findResponseByIdAndUserId(workoutId, currentUserId)).thenReturn(of(mockWorkout));
+        WorkoutResponseDto workout = workoutService.get(currentUserId, workoutId, 0L);
 
         assertThat(workout.getDate(), equalTo(date));
         assertThat(workout.getDescription(), equalTo(description));
         assertThat(workout.getId(), equalTo(workoutId));
         assertThat(workout.getTitle(), equalTo(title));
-        assertThat(workout.getUser(), equalTo(mockCurrentUser));
-        verify(userService, times(1)).getCurrentUser();
-        verify(workoutRepository, times(1)).findById(workoutId);
+        verify(userService, times(1)).getCurrentUserId();
+        verify(workoutRepository, times(1)).findResponseByIdAndUserId(workoutId, currentUserId);
+        verify(workoutRepository, never()).findVersionByIdAndUserId(anyLong(), anyLong());
+        verify(workoutRepository, never()).findById(anyLong());
+    }
+
+    @Test
+    public void getWorkoutFromCache() {
+        long currentUserId = 300L;
+        long workoutId = 289L;
+        when(userService.getCurrentUserId()).thenReturn(currentUserId);
+        WorkoutResponseDto mockWorkout = new WorkoutResponseDto(workoutId, "Running", LocalDate.parse("2019-03-15"), "Running 5 miles");
+        when(workoutRepository.findResponseByIdAndUserId(workoutId, currentUserId)).thenReturn(of(mockWorkout));
+
+        workoutService.get(currentUserId, workoutId, 0L);
+        WorkoutResponseDto workout = workoutService.get(currentUserId, workoutId, 0L);
+
+        assertThat(workout, equalTo(mockWorkout));
+        verify(workoutRepository, times(1)).findResponseByIdAndUserId(workoutId, currentUserId);
+    }
+
+    @Test
+    public void getWorkoutAfterEviction() {
+        long currentUserId = 300L;
+        long workoutId = 289L;
+        when(userService.getCurrentUserId()).thenReturn(currentUserId);
+        WorkoutResponseDto mockWorkout = new WorkoutResponseDto(workoutId, "Running", LocalDate.parse("2019-03-15"), "Running 5 miles");
+        when(workoutRepository.findResponseByIdAndUserId(workoutId, currentUserId)).thenReturn(of(mockWorkout));
+        when(workoutRepository.deleteByIdAndUserId(workoutId, currentUserId)).thenReturn(1);
+
+        workoutService.get(currentUserId, workoutId, 0L);
+        workoutService.delete(currentUserId, workoutId);
+        workoutService.get(currentUserId, workoutId, 0L);
+
+        verify(workoutRepository, times(2)).findResponseByIdAndUserId(workoutId, currentUserId);
+        verify(cacheInvalidationPublisher, times(1)).publish("workouts", currentUserId);
+    }
+
+    @Test
+    public void getWorkoutVersion() {
+        long currentUserId = 300L;
+        long workoutId = 289L;
+        when(userService.getCurrentUserId()).thenReturn(currentUserId);
+        when(workoutRepository.findVersionByIdAndUserId(workoutId, currentUserId)).thenReturn(of(3L));
+
+        assertThat(workoutService.getWorkoutVersion(currentUserId, workoutId), equalTo(3L));
+        verify(workoutRepository, never()).findResponseByIdAndUserId(anyLong(), anyLong());
+    }
+
+    @Test
+    public void getWorkoutFromCacheAfterVersionChange() {
+        long currentUserId = 300L;
+        long workoutId = 289L;
+        when(userService.getCurrentUserId()).thenReturn(currentUserId);
+        WorkoutResponseDto mockWorkout = new WorkoutResponseDto(workoutId, "Running", LocalDate.parse("2019-03-15"), "Running 5 miles");
+        when(workoutRepository.findResponseByIdAndUserId(workoutId, currentUserId)).thenReturn(of(mockWorkout));
+
+        workoutService.get(currentUserId, workoutId, 0L);
+        workoutService.get(currentUserId, workoutId, 1L);
+
+        verify(workoutRepository, times(2)).findResponseByIdAndUserId(workoutId, currentUserId);
     }
 
     @Test
     public void getWorkoutForAnotherUser() {
-        LocalDate date = LocalDate.parse("2019-03-15");
-        String title = "Running";
-        String description = "Running 5 miles";
         long currentUserId = 300L;
         long workoutId = 289L;
         User mockCurrentUser = new User();
         mockCurrentUser.setId(currentUserId);
-        when(userService.getCurrentUser()).thenReturn(mockCurrentUser);
-        Workout mockWorkout = new Workout(workoutId, date, title, description, mockCurrentUser);
-        when(workoutRepository.findById(workoutId)).thenReturn(of(mockWorkout));
+        when(userService.getCurrentUserId()).thenReturn(mockCurrentUser.getId());
 
         exceptionRule.expect(AccessDeniedException.class);
         exceptionRule.expectMessage("Access denied");
-        workoutService.get(100L, workoutId);
+        workoutService.get(100L, workoutId, 0L);
     }
 
     @Test
@@ -114,41 +201,37 @@ public class WorkoutServiceUnitTest {
         Long currentUserId = 300L;
         User mockCurrentUser = new User();
         mockCurrentUser.setId(currentUserId);
-        when(userService.getCurrentUser()).thenReturn(mockCurrentUser);
+        when(userService.getCurrentUserId()).thenReturn(mockCurrentUser.getId());
+        when(workoutRepository.findResponseByIdAndUserId(230L, currentUserId)).thenReturn(empty());
 
         exceptionRule.expect(NotFoundException.class);
         exceptionRule.expectMessage("Workout not found");
-        workoutService.get(currentUserId, 230L);
+        workoutService.get(currentUserId, 230L, 0L);
     }
 
     @Test
     public void updateWorkout() {
         long workoutId = 55L;
         long currentUserId = 200L;
-        String title = "Running";
-        LocalDate currentDate = LocalDate.parse("2014-05-22");
-        String currentDescription = "Running 5 miles";
         LocalDate newDate = LocalDate.parse("2018-01-02");
         String newTitle = "Swimming";
         String newDescription = "Swimming 1 mile";
         User mockCurrentUser = new User();
         mockCurrentUser.setId(currentUserId);
-        when(userService.getCurrentUser()).thenReturn(mockCurrentUser);
-        Workout currentMockWorkout = new Workout(workoutId, currentDate, title, currentDescription, mockCurrentUser);
-        when(workoutRepository.findById(workoutId)).thenReturn(of(currentMockWorkout));
-        Workout newMockWorkout = new Workout(workoutId, newDate, newTitle, newDescription, mockCurrentUser);
-        when(workoutRepository.save(any(Workout.class))).thenReturn(newMockWorkout);
+        when(userService.getCurrentUserId()).thenReturn(mockCurrentUser.getId());
+        when(workoutRepository.updateByIdAndUserId(eq(workoutId), eq(currentUserId), eq(newTitle), eq(newDate), eq(newDescription), eq(newDescription), anyLong()))
+                .thenReturn(1);
         WorkoutCreateUpdateRequestDto request = new WorkoutCreateUpdateRequestDto(newDate, newDescription, newTitle);
-        Workout updatedWorkout = workoutService.update(request, currentUserId, workoutId);
+        WorkoutResponseDto updatedWorkout = workoutService.update(request, currentUserId, workoutId);
 
         assertThat(updatedWorkout.getDate(), equalTo(newDate));
         assertThat(updatedWorkout.getDescription(), equalTo(newDescription));
         assertThat(updatedWorkout.getId(), equalTo(workoutId));
-        assertThat(updatedWorkout.getUser(), equalTo(mockCurrentUser));
         assertThat(updatedWorkout.getTitle(), equalTo(newTitle));
-        verify(userService, times(1)).getCurrentUser();
-        verify(workoutRepository, times(1)).findById(workoutId);
-        verify(workoutRepository, times(1)).save(any(Workout.class));
+        verify(userService, times(1)).getCurrentUserId();
+        verify(userRepository, never()).getOne(anyLong());
+        verify(workoutRepository, never()).findById(anyLong());
+        verify(workoutRepository, never()).save(any(Workout.class));
     }
 
     @Test
@@ -163,7 +246,7 @@ public class WorkoutServiceUnitTest {
         String newDescription = "Swimming 1 mile";
         User mockCurrentUser = new User();
         mockCurrentUser.setId(currentUserId);
-        when(userService.getCurrentUser()).thenReturn(mockCurrentUser);
+        when(userService.getCurrentUserId()).thenReturn(mockCurrentUser.getId());
         Workout currentMockWorkout = new Workout(workoutId, currentDate, title, currentDescription, mockCurrentUser);
         when(workoutRepository.findById(workoutId)).thenReturn(of(currentMockWorkout));
         Workout newMockWorkout = new Workout(workoutId, newDate, newTitle, newDescription, mockCurrentUser);
@@ -181,7 +264,7 @@ public class WorkoutServiceUnitTest {
         long currentUserId = 200L;
         User mockCurrentUser = new User();
         mockCurrentUser.setId(currentUserId);
-        when(userService.getCurrentUser()).thenReturn(mockCurrentUser);
+        when(userService.getCurrentUserId()).thenReturn(mockCurrentUser.getId());
         WorkoutCreateUpdateRequestDto request =
                 new WorkoutCreateUpdateRequestDto(LocalDate.parse("2018-01-02"), "Swimming 1 mile", "Swimming");
 
@@ -190,23 +273,68 @@ public class WorkoutServiceUnitTest {
         workoutService.update(request, currentUserId, 1120L);
     }
 
+    @Test
+    public void patchWorkout() {
+        long workoutId = 55L;
+        long currentUserId = 200L;
+        LocalDate newDate = LocalDate.parse("2018-01-02");
+        User mockCurrentUser = new User();
+        mockCurrentUser.setId(currentUserId);
+        when(userService.getCurrentUserId()).thenReturn(mockCurrentUser.getId());
+        Workout mockWorkout = new Workout(workoutId, LocalDate.parse("2014-05-22"), "Running", "Running 5 miles", mockCurrentUser);
+        when(workoutRepository.findByIdAndUserId(workoutId, currentUserId)).thenReturn(of(mockWorkout));
+        when(userRepository.nextWorkoutsVersion(currentUserId)).thenReturn(7L);
+        workoutService.patch(new WorkoutPatchRequestDto(newDate, null, null), currentUserId, workoutId);
+
+        assertThat(mockWorkout.getDate(), equalTo(newDate));
+        assertThat(mockWorkout.getTitle(), equalTo("Running"));
+        assertThat(mockWorkout.getDescription(), equalTo("Running 5 miles"));
+        assertThat(mockWorkout.getChangeVersion(), equalTo(7L));
+        verify(workoutRepository, times(1)).save(mockWorkout);
+        verify(cacheInvalidationPublisher, times(1)).publish("workouts", currentUserId);
+    }
+
+    @Test
+    public void patchWorkoutWithoutChanges() {
+        long workoutId = 55L;
+        long currentUserId = 200L;
+        User mockCurrentUser = new User();
+        mockCurrentUser.setId(currentUserId);
+        when(userService.getCurrentUserId()).thenReturn(mockCurrentUser.getId());
+        Workout mockWorkout = new Workout(workoutId, LocalDate.parse("2014-05-22"), "Running", "Running 5 miles", mockCurrentUser);
+        when(workoutRepository.findByIdAndUserId(workoutId, currentUserId)).thenReturn(of(mockWorkout));
+        Workout workout = workoutService.patch(new WorkoutPatchRequestDto(null, null, "Running"), currentUserId, workoutId);
+
+        assertThat(workout, equalTo(mockWorkout));
+        verify(userRepository, never()).nextWorkoutsVersion(anyLong());
+        verify(workoutRepository, never()).save(any(Workout.class));
+    }
+
+    @Test
+    public void patchWorkoutThatCurrentUserDidNotCreate() {
+        long currentUserId = 200L;
+        when(userService.getCurrentUserId()).thenReturn(currentUserId);
+
+        exceptionRule.expect(NotFoundException.class);
+        exceptionRule.expectMessage("Workout not found");
+        workoutService.patch(new WorkoutPatchRequestDto(LocalDate.parse("2018-01-02"), null, null), currentUserId, 1120L);
+    }
+
     @Test
     public void deleteWorkout() {
-        LocalDate date = LocalDate.parse("2019-03-15");
-        String title = "Running";
-        String description = "Running 5 miles";
         long currentUserId = 300L;
         long workoutId = 289L;
         User mockCurrentUser = new User();
         mockCurrentUser.setId(currentUserId);
-        when(userService.getCurrentUser()).thenReturn(mockCurrentUser);
-        Workout mockWorkout = new Workout(workoutId, date, title, description, mockCurrentUser);
-        when(workoutRepository.findById(workoutId)).thenReturn(of(mockWorkout));
+        when(userService.getCurrentUserId()).thenReturn(mockCurrentUser.getId());
+        when(workoutRepository.deleteByIdAndUserId(workoutId, currentUserId)).thenReturn(1);
         workoutService.delete(currentUserId, workoutId);
 
-        verify(userService, times(1)).getCurrentUser();
-        verify(workoutRepository, times(1)).findById(workoutId);
-        verify(workoutRepository, times(1)).delete(any(Workout.class));
+        verify(userService, times(1)).getCurrentUserId();
+        verify(workoutRepository, never()).findById(anyLong());
+        verify(workoutRepository, times(1)).deleteByIdAndUserId(workoutId, currentUserId);
+        verify(workoutTombstoneRepository, times(1)).save(argThat((WorkoutTombstone tombstone) ->
+                tombstone.getWorkoutId() == workoutId && tombstone.getUserId() == currentUserId));
     }
 
     @Test
@@ -218,7 +346,7 @@ public class WorkoutServiceUnitTest {
         long workoutId = 289L;
         User mockCurrentUser = new User();
         mockCurrentUser.setId(currentUserId);
-        when(userService.getCurrentUser()).thenReturn(mockCurrentUser);
+        when(userService.getCurrentUserId()).thenReturn(mockCurrentUser.getId());
         Workout mockWorkout = new Workout(workoutId, date, title, description, mockCurrentUser);
         when(workoutRepository.findById(workoutId)).thenReturn(of(mockWorkout));
 
@@ -232,13 +360,97 @@ public class WorkoutServiceUnitTest {
         long currentUserId = 300L;
         User mockCurrentUser = new User();
         mockCurrentUser.setId(currentUserId);
-        when(userService.getCurrentUser()).thenReturn(mockCurrentUser);
+        when(userService.getCurrentUserId()).thenReturn(mockCurrentUser.getId());
 
         exceptionRule.expect(NotFoundException.class);
         exceptionRule.expectMessage("Workout not found");
         workoutService.delete(currentUserId, 987L);
     }
 
+    @Test
+    public void bulk() {
+        long currentUserId = 300L;
+        User mockCurrentUser = new User();
+        mockCurrentUser.setId(currentUserId);
+        when(userService.getCurrentUserId()).thenReturn(currentUserId);
+        when(userRepository.getOne(currentUserId)).thenReturn(mockCurrentUser);
+        Workout mockWorkout = new Workout(289L, LocalDate.parse("2019-03-15"), "Running", "Running 5 miles", mockCurrentUser);
+        when(workoutRepository.findAllByUserIdAndIdIn(eq(currentUserId), anyCollection()))
+                .thenReturn(Collections.singletonList(mockWorkout));
+        WorkoutCreateUpdateRequestDto update = new WorkoutCreateUpdateRequestDto(LocalDate.parse("2019-03-16"), "Running 6 miles", "Running");
+
+        List<WorkoutBulkResultDto> results = workoutService.bulk(currentUserId, Arrays.asList(
+                new WorkoutBulkOperationDto(WorkoutBulkAction.UPDATE, 289L, update),
+                new WorkoutBulkOperationDto(WorkoutBulkAction.DELETE, 290L, null)
+        ));
+
+        assertThat(results.get(0).getStatus(), equalTo(WorkoutBulkStatus.UPDATED));
+        assertThat(results.get(1).getStatus(), equalTo(WorkoutBulkStatus.NOT_FOUND));
+        assertThat(mockWorkout.getDescription(), equalTo("Running 6 miles"));
+        verify(userService, times(1)).getCurrentUserId();
+        verify(workoutRepository, times(1)).findAllByUserIdAndIdIn(eq(currentUserId), anyCollection());
+        verify(workoutRepository, never()).findById(anyLong());
+        verify(userRepository, times(1)).nextWorkoutsVersion(currentUserId);
+    }
+
+    @Test
+    public void bulkWithInvalidWorkout() {
+        long currentUserId = 300L;
+        when(userService.getCurrentUserId()).thenReturn(currentUserId);
+        WorkoutCreateUpdateRequestDto create = new WorkoutCreateUpdateRequestDto(LocalDate.parse("2019-03-15"), "Running 5 miles", "");
+
+        List<WorkoutBulkResultDto> results = workoutService.bulk(currentUserId, Collections.singletonList(
+                new WorkoutBulkOperationDto(WorkoutBulkAction.CREATE, null, create)));
+
+        assertThat(results.get(0).getStatus(), equalTo(WorkoutBulkStatus.INVALID));
+        assertThat(results.get(0).getErrors(), equalTo(Collections.singletonList("title: should not be blank")));
+        verify(workoutRepository, never()).save(any(Workout.class));
+    }
+
+    @Test
+    public void bulkWithNothingApplied() {
+        long currentUserId = 300L;
+        when(userService.getCurrentUserId()).thenReturn(currentUserId);
+        WorkoutCreateUpdateRequestDto create = new WorkoutCreateUpdateRequestDto(LocalDate.parse("2019-03-15"), "Running 5 miles", "");
+
+        List<WorkoutBulkResultDto> results = workoutService.bulk(currentUserId, Arrays.asList(
+                new WorkoutBulkOperationDto(WorkoutBulkAction.CREATE, null, create),
+                new WorkoutBulkOperationDto(WorkoutBulkAction.DELETE, 290L, null)
+        ));
+
+        assertThat(results.get(0).getStatus(), equalTo(WorkoutBulkStatus.INVALID));
+        assertThat(results.get(1).getStatus(), equalTo(WorkoutBulkStatus.NOT_FOUND));
+        verify(userRepository, never()).nextWorkoutsVersion(anyLong());
+        verify(cacheInvalidationPublisher, never()).publish(anyString(), any());
+    }
+
+    @Test
+    public void bulkWithTooManyOperations() {
+        when(userService.getCurrentUserId()).thenReturn(300L);
+        WorkoutBulkOperationDto delete = new WorkoutBulkOperationDto(WorkoutBulkAction.DELETE, 289L, null);
+
+        exceptionRule.expect(IllegalArgumentException.class);
+        workoutService.bulk(300L, Arrays.asList(delete, delete, delete));
+    }
+
+    @Test
+    public void bulkWithNullOperation() {
+        when(userService.getCurrentUserId()).thenReturn(300L);
+
+        exceptionRule.expect(IllegalArgumentException.class);
+        exceptionRule.expectMessage("Operations should not be null");
+        workoutService.bulk(300L, Arrays.asList(new WorkoutBulkOperationDto(WorkoutBulkAction.DELETE, 289L, null), null));
+    }
+
+    @Test
+    public void bulkForAnotherUser() {
+        when(userService.getCurrentUserId()).thenReturn(300L);
+
+        exceptionRule.expect(AccessDeniedException.class);
+        exceptionRule.expectMessage("Access denied");
+        workoutService.bulk(100L, Collections.singletonList(new WorkoutBulkOperationDto(WorkoutBulkAction.DELETE, 289L, null)));
+    }
+
     @Test
     public void getAllWorkoutsByUserId() {
         long currentUserId = 300L;
@@ -248,34 +460,97 @@ public class WorkoutServiceUnitTest {
         String description = "Running 5 miles";
         User mockCurrentUser = new User();
         mockCurrentUser.setId(currentUserId);
-        when(userService.getCurrentUser()).thenReturn(mockCurrentUser);
-        Workout mockWorkout = new Workout(workoutId, date, title, description, mockCurrentUser);
-        when(workoutRepository.findAllByOrderByIdDesc()).thenReturn(Collections.singletonList(mockWorkout));
-        List<Workout> workouts = workoutService.getAllWorkoutsByUserId(currentUserId);
-
-        assertThat(workouts.get(0).getId(), equalTo(workoutId));
-        assertThat(workouts.get(0).getDate(), equalTo(date));
-        assertThat(workouts.get(0).getDescription(), equalTo(description));
-        assertThat(workouts.get(0).getUser(), equalTo(mockCurrentUser));
-        assertThat(workouts.get(0).getTitle(), equalTo(title));
-        verify(userService, times(1)).getCurrentUser();
-        verify(workoutRepository, times(1)).findAllByOrderByIdDesc();
+        when(userService.getCurrentUserId()).thenReturn(mockCurrentUser.getId());
+        WorkoutResponseDto mockWorkout = new WorkoutResponseDto(workoutId, title, date, description);
+        when(workoutRepository.findByUserIdSortedById(eq(currentUserId), any(LocalDate.class), any(LocalDate.class), eq(Long.MAX_VALUE), any(Pageable.class)))
+                .thenReturn(Collections.singletonList(mockWorkout));
+        Slice<WorkoutResponseDto> workouts = workoutService.getAllWorkoutsByUserId(currentUserId, 0L, new WorkoutListRequestDto());
+
+        assertThat(workouts.getContent().get(0).getId(), equalTo(workoutId));
+        assertThat(workouts.getContent().get(0).getDate(), equalTo(date));
+        assertThat(workouts.getContent().get(0).getDescription(), equalTo(description));
+        assertThat(workouts.getContent().get(0).getTitle(), equalTo(title));
+        assertFalse(workouts.hasNext());
+        verify(userService, times(1)).getCurrentUserId();
+        verify(workoutRepository, times(1))
+                .findByUserIdSortedById(eq(currentUserId), any(LocalDate.class), any(LocalDate.class), eq(Long.MAX_VALUE), any(Pageable.class));
     }
 
     @Test
     public void getAllWorkoutsByAnotherUserId() {
-        long workoutId = 289L;
-        String title = "Running";
-        LocalDate date = LocalDate.parse("2019-03-15");
-        String description = "Running 5 miles";
         User mockCurrentUser = new User();
         mockCurrentUser.setId(300L);
-        when(userService.getCurrentUser()).thenReturn(mockCurrentUser);
-        Workout mockWorkout = new Workout(workoutId, date, title, description, mockCurrentUser);
-        when(workoutRepository.findAllByOrderByIdDesc()).thenReturn(Collections.singletonList(mockWorkout));
+        when(userService.getCurrentUserId()).thenReturn(mockCurrentUser.getId());
 
         exceptionRule.expect(AccessDeniedException.class);
         exceptionRule.expectMessage("Access denied");
-        workoutService.getAllWorkoutsByUserId(100L);
+        workoutService.getAllWorkoutsByUserId(100L, 0L, new WorkoutListRequestDto());
+    }
+
+    @Test
+    public void getAllWorkoutsByUserIdInDateRange() {
+        long currentUserId = 300L;
+        LocalDate from = LocalDate.parse("2019-03-01");
+        LocalDate to = LocalDate.parse("2019-03-31");
+        User mockCurrentUser = new User();
+        mockCurrentUser.setId(currentUserId);
+        when(userService.getCurrentUserId()).thenReturn(mockCurrentUser.getId());
+        WorkoutListRequestDto request = new WorkoutListRequestDto();
+        request.setFrom(from);
+        request.setTo(to);
+        request.setSort("date");
+        workoutService.getAllWorkoutsByUserId(currentUserId, 0L, request);
+
+        verify(workoutRepository, times(1))
+                .findByUserIdSortedByDate(eq(currentUserId), eq(from), eq(to), eq(to), eq(Long.MAX_VALUE), any(Pageable.class));
+    }
+
+    @Test
+    public void getWorkoutsPage() {
+        long currentUserId = 300L;
+        User mockCurrentUser = new User();
+        mockCurrentUser.setId(currentUserId);
+        when(userService.getCurrentUserId()).thenReturn(mockCurrentUser.getId());
+        WorkoutResponseDto firstWorkout = new WorkoutResponseDto(289L, "Running", LocalDate.parse("2019-03-15"), "Running 5 miles");
+        WorkoutResponseDto secondWorkout = new WorkoutResponseDto(288L, "Cycling", LocalDate.parse("2019-03-14"), "Cycling 30 miles");
+        when(workoutRepository.findByUserIdSortedByDate(eq(currentUserId), any(LocalDate.class), any(LocalDate.class), any(LocalDate.class), eq(Long.MAX_VALUE), any(Pageable.class)))
+                .thenReturn(Arrays.asList(firstWorkout, secondWorkout));
+        WorkoutListRequestDto request = new WorkoutListRequestDto();
+        request.setLimit(1);
+        Slice<WorkoutResponseDto> page = workoutService.getAllWorkoutsByUserId(currentUserId, 0L, request);
+
+        assertThat(page.getNumberOfElements(), equalTo(1));
+        assertThat(page.getContent().get(0).getId(), equalTo(289L));
+        assertTrue(page.hasNext());
+    }
+
+    @Test
+    public void getWorkoutsPageAfterCursor() {
+        long currentUserId = 300L;
+        LocalDate date = LocalDate.parse("2019-03-15");
+        User mockCurrentUser = new User();
+        mockCurrentUser.setId(currentUserId);
+        when(userService.getCurrentUserId()).thenReturn(mockCurrentUser.getId());
+        WorkoutListRequestDto request = new WorkoutListRequestDto();
+        request.setLimit(10);
+        request.setAfter(new WorkoutCursor(date, 289L).encode());
+        workoutService.getAllWorkoutsByUserId(currentUserId, 0L, request);
+
+        verify(workoutRepository, times(1))
+                .findByUserIdSortedByDate(eq(currentUserId), any(LocalDate.class), any(LocalDate.class), eq(date), eq(289L), any(Pageable.class));
+    }
+
+    @Test
+    public void getWorkoutsPageWithInvalidCursor() {
+        long currentUserId = 300L;
+        User mockCurrentUser = new User();
+        mockCurrentUser.setId(currentUserId);
+        when(userService.getCurrentUserId()).thenReturn(mockCurrentUser.getId());
+        WorkoutListRequestDto request = new WorkoutListRequestDto();
+        request.setLimit(10);
+        request.setAfter("invalid");
+
+        exceptionRule.expect(IllegalArgumentException.class);
+        workoutService.getAllWorkoutsByUserId(currentUserId, 0L, request);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,2 @@
+CREATE TABLE identity_workouts (LIKE workouts INCLUDING INDEXES);
+ALTER TABLE identity_workouts ALTER COLUMN id ADD GENERATED BY DEFAULT AS IDENTITY;
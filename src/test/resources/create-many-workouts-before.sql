@@ -0,0 +1,8 @@
+INSERT INTO users (id, first_name, last_name, age, email, password, is_enabled)
+SELECT 1000 + n, 'John', 'Doe', 23, 'explain' || n || '@myemail.com', 'Password!1', true
+FROM generate_series(1, 200) n;
+INSERT INTO workouts (user_id, title, workout_date, description, description_preview)
+SELECT 1000 + u, 'Running', DATE '2018-01-01' + d, 'Running 5 miles', 'Running 5 miles'
+FROM generate_series(1, 200) u, generate_series(1, 100) d;
+ANALYZE users;
+ANALYZE workouts;
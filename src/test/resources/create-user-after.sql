@@ -1,2 +1,3 @@
+DELETE FROM email_outbox;
 DELETE FROM confirmation_codes;
 DELETE FROM users;
\ No newline at end of file
@@ -1 +1,2 @@
+DELETE FROM workout_tombstones;
 DELETE FROM workouts;
\ No newline at end of file
@@ -1,3 +1,3 @@
 DELETE FROM workouts;
-INSERT INTO workouts (id, user_id, title, workout_date, description) VALUES (10, 25, 'Cycling', '2018-07-01', 'Cycling 30 miles');
-INSERT INTO workouts (id, user_id, title, workout_date, description) VALUES (11, 25, 'Morning running', '2018-08-01', 'Running 5 miles');
+INSERT INTO workouts (id, user_id, title, workout_date, description, description_preview) VALUES (10, 25, 'Cycling', '2018-07-01', 'Cycling 30 miles', 'Cycling 30 miles');
+INSERT INTO workouts (id, user_id, title, workout_date, description, description_preview) VALUES (11, 25, 'Morning running', '2018-08-01', 'Running 5 miles', 'Running 5 miles');